@@ -1,12 +1,15 @@
 package com.vampireraiders;
 
 import com.vampireraiders.config.ServerConfig;
+import com.vampireraiders.database.DatabaseConnection;
 import com.vampireraiders.database.ItemModRepository;
-import com.vampireraiders.database.ItemTemplateRepository;
+import com.vampireraiders.database.StaticDataLoader;
+import com.vampireraiders.game.EnemyLodSystem;
 import com.vampireraiders.game.GameLoop;
 import com.vampireraiders.game.GameWorld;
 import com.vampireraiders.network.NetworkManager;
 import com.vampireraiders.network.NetworkEventListener;
+import com.vampireraiders.systems.InventoryService;
 import com.vampireraiders.systems.SpawnerSystem;
 import com.vampireraiders.systems.StateSync;
 import com.vampireraiders.util.Logger;
@@ -42,10 +45,9 @@ public class VampireRaidersServer implements NetworkEventListener {
         Logger.info("=================================");
         Logger.info("Starting server on " + config.getHost() + ":" + config.getPort());
 
-        // Load static data caches
-        Logger.info("Loading static data caches...");
-        ItemTemplateRepository.loadTemplates();
-        ItemModRepository.loadModTemplates();
+        // Load static data (templates, drops, mods) into the template registry
+        Logger.info("Loading static data...");
+        StaticDataLoader.reload();
 
         // Spawn initial enemies for performance testing
         spawnerSystem.spawnInitialEnemiesForPerfTest();
@@ -69,6 +71,7 @@ public class VampireRaidersServer implements NetworkEventListener {
         gameLoop.stop();
         networkManager.stop();
         gameWorld.stop();
+        InventoryService.getInstance().shutdown();
 
         try {
             if (gameLoopThread != null) {
@@ -119,10 +122,23 @@ public class VampireRaidersServer implements NetworkEventListener {
                     case "status":
                         int players = server.gameWorld.getState().getPlayerCount();
                         int enemies = server.gameWorld.getState().getEnemyCount();
-                        Logger.info("Status - Players: " + players + ", Enemies: " + enemies);
+                        EnemyLodSystem lod = server.gameWorld.getEnemyLodSystem();
+                        Logger.info("Status - Players: " + players + ", Enemies: " + enemies +
+                                " (LOD active=" + lod.getActiveCount() + ", reduced=" + lod.getReducedCount() +
+                                ", dormant=" + lod.getDormantCount() + ")");
+                        Logger.info("Item mod cache - " + ItemModRepository.getCacheStats());
+                        Logger.info("Login pipeline - " + server.networkManager.getLoginStats());
+                        Logger.info("UDP snapshots - " + server.networkManager.getSnapshotStats());
+                        Logger.info("DB pools - " + DatabaseConnection.getPoolStats());
+                        break;
+                    case "reload":
+                        // Balancing changes: swap in fresh templates, drops and mods without a restart
+                        if (!StaticDataLoader.reload()) {
+                            System.out.println("Reload failed, previous static data kept (see log).");
+                        }
                         break;
                     case "help":
-                        System.out.println("Commands: status, help, stop");
+                        System.out.println("Commands: status, reload, help, stop");
                         break;
                     case "stop":
                     case "exit":
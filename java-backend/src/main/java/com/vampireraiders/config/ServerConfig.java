@@ -51,6 +51,67 @@ public class ServerConfig {
         return Integer.parseInt(properties.getProperty("spawner.max-enemies", "10"));
     }
 
+    public int getAiLodActiveRadiusTiles() {
+        return Integer.parseInt(properties.getProperty("ai.lod.active-radius-tiles", "12"));
+    }
+
+    public int getAiLodDormantRadiusTiles() {
+        return Integer.parseInt(properties.getProperty("ai.lod.dormant-radius-tiles", "24"));
+    }
+
+    public int getFlowFieldRadiusTiles() {
+        return Integer.parseInt(properties.getProperty("ai.flow-field.radius-tiles", "24"));
+    }
+
+    public int getAiLodReducedTickInterval() {
+        return Integer.parseInt(properties.getProperty("ai.lod.reduced-tick-interval", "4"));
+    }
+
+    public int getAiLodDormantCheckInterval() {
+        return Integer.parseInt(properties.getProperty("ai.lod.dormant-check-interval", "15"));
+    }
+
+    public boolean isMapCacheEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("map.cache-enabled", "true"));
+    }
+
+    public String getMapCacheDir() {
+        return properties.getProperty("map.cache-dir", "map-cache");
+    }
+
+    public int getItemModCacheMaxWeight() {
+        return Integer.parseInt(properties.getProperty("cache.item-mods.max-weight", "20000"));
+    }
+
+    public int getEquippedCacheMaxPlayers() {
+        return Integer.parseInt(properties.getProperty("cache.equipped.max-players", "2000"));
+    }
+
+    public int getLoginThreads() {
+        return Integer.parseInt(properties.getProperty("login.threads", "4"));
+    }
+
+    public int getLoginQueueCapacity() {
+        return Integer.parseInt(properties.getProperty("login.queue-capacity", "256"));
+    }
+
+    public int getUdpReaders() {
+        return Integer.parseInt(properties.getProperty("udp.readers", "2"));
+    }
+
+    public boolean isUdpSnapshotsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("udp.snapshots.enabled", "true"));
+    }
+
+    /**
+     * Connection pool size of one database workload (login, persistence, inventory, general).
+     * GENERAL keeps the old shared pool's 10 since every client reader thread draws from it.
+     */
+    public int getDbPoolSize(String workload) {
+        String def = "login".equals(workload) ? "4" : "general".equals(workload) ? "10" : "2";
+        return Integer.parseInt(properties.getProperty("db.pool." + workload + ".size", def));
+    }
+
     public String getLogLevel() {
         return properties.getProperty("logging.level.com.vampireraiders", "DEBUG");
     }
@@ -1,19 +1,36 @@
 package com.vampireraiders.database;
 
+import com.vampireraiders.config.ServerConfig;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * One connection pool per workload class (bulkheads), so e.g. a burst of drop inserts can't
+ * starve logins of connections.
+ *
+ * getConnection() uses the workload bound to the calling thread (GENERAL by default); the
+ * login and inventory writer threads bind theirs when they start. Player saves always use
+ * the PERSISTENCE pool. GENERAL also serves every client reader thread (item mods, on-demand
+ * inventory loads), so it keeps the old single pool's size rather than a bulkhead's.
+ */
 public class DatabaseConnection {
-    private static HikariDataSource dataSource;
+
+    public enum Workload { LOGIN, PERSISTENCE, INVENTORY, GENERAL }
+
+    private static final ThreadLocal<Workload> boundWorkload = ThreadLocal.withInitial(() -> Workload.GENERAL);
+    private static final Map<Workload, Pool> pools = new EnumMap<>(Workload.class);
 
     static {
         try {
-            HikariConfig config = new HikariConfig();
-
             // Read configuration from environment (with sane defaults for Docker Compose)
             String host = env("DATABASE_HOST", "localhost");
             String port = env("DATABASE_PORT", "3306");
@@ -26,30 +43,85 @@ public class DatabaseConnection {
                 host, port, dbName
             );
 
-            config.setJdbcUrl(jdbcUrl);
-            config.setUsername(username);
-            config.setPassword(password);
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
-
-            dataSource = new HikariDataSource(config);
-            Logger.info("Database connection pool initialized: " + jdbcUrl + " (user=" + username + ")");
+            ServerConfig serverConfig = ServerConfig.getInstance();
+            for (Workload workload : Workload.values()) {
+                int size = serverConfig.getDbPoolSize(workload.name().toLowerCase());
+                pools.put(workload, new Pool(workload, createDataSource(jdbcUrl, username, password, workload, size), size));
+            }
+            Logger.info("Database connection pools initialized: " + jdbcUrl + " (user=" + username + ") " + getPoolSizes());
         } catch (Exception e) {
-            Logger.error("Failed to initialize database connection pool: " + e.getMessage());
+            Logger.error("Failed to initialize database connection pools: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    private static HikariDataSource createDataSource(String jdbcUrl, String username, String password,
+                                                     Workload workload, int size) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("db-" + workload.name().toLowerCase());
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(Math.min(2, size));
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+
+        // MySQL driver: cache prepared statements per connection and rewrite addBatch()
+        // batches into multi-row statements (UnitOfWork batches)
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Route connections requested by the current thread to this workload's pool.
+     */
+    public static void bindWorkload(Workload workload) {
+        boundWorkload.set(workload);
+    }
+
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        return getConnection(boundWorkload.get());
+    }
+
+    public static Connection getConnection(Workload workload) throws SQLException {
+        Pool pool = pools.get(workload);
+        if (pool == null) {
+            throw new SQLException("No connection pool for workload " + workload);
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Per-workload pool metrics for the status command.
+     */
+    public static String getPoolStats() {
+        StringBuilder sb = new StringBuilder();
+        for (Pool pool : pools.values()) {
+            if (sb.length() > 0) sb.append("; ");
+            sb.append(pool.getStats());
+        }
+        return sb.toString();
+    }
+
+    private static String getPoolSizes() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Workload, Pool> entry : pools.entrySet()) {
+            sb.append(sb.length() == 0 ? "[" : ", ")
+              .append(entry.getKey().name().toLowerCase()).append('=').append(entry.getValue().size);
+        }
+        return sb.append(']').toString();
     }
 
     public static void close() {
-        if (dataSource != null) {
-            dataSource.close();
+        for (Pool pool : pools.values()) {
+            pool.dataSource.close();
         }
     }
 
@@ -57,4 +129,47 @@ public class DatabaseConnection {
         String v = System.getenv(key);
         return (v != null && !v.isEmpty()) ? v : def;
     }
+
+    private static final class Pool {
+        private final Workload workload;
+        private final HikariDataSource dataSource;
+        private final int size;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Pool(Workload workload, HikariDataSource dataSource, int size) {
+            this.workload = workload;
+            this.dataSource = dataSource;
+            this.size = size;
+        }
+
+        Connection getConnection() throws SQLException {
+            long start = System.nanoTime();
+            try {
+                Connection conn = dataSource.getConnection();
+                acquired.increment();
+                return conn;
+            } catch (SQLException e) {
+                failures.increment();
+                throw e;
+            } finally {
+                long waited = System.nanoTime() - start;
+                totalWaitNanos.add(waited);
+                maxWaitNanos.accumulateAndGet(waited, Math::max);
+            }
+        }
+
+        String getStats() {
+            long count = acquired.sum();
+            double avgWaitMs = count > 0 ? totalWaitNanos.sum() / 1_000_000.0 / count : 0.0;
+            HikariPoolMXBean mx = dataSource.getHikariPoolMXBean();
+            String usage = mx != null
+                    ? "active=" + mx.getActiveConnections() + "/" + size + ", pending=" + mx.getThreadsAwaitingConnection()
+                    : "size=" + size;
+            return workload.name().toLowerCase() + " " + usage + ", acquired=" + count + ", failed=" + failures.sum() +
+                    String.format(", avgWait=%.2fms, maxWait=%.2fms", avgWaitMs, maxWaitNanos.get() / 1_000_000.0);
+        }
+    }
 }
@@ -1,21 +1,23 @@
 package com.vampireraiders.database;
 
 import com.vampireraiders.game.EnemyTemplate;
-import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class EnemyTemplateRepository {
-    private static volatile Map<String, EnemyTemplate> cache = Collections.emptyMap();
 
-    public static synchronized void loadTemplates() {
+    /**
+     * Read all enemy templates. Served to the game through TemplateRegistry (see StaticDataLoader).
+     */
+    public static List<EnemyTemplate> loadTemplates() throws SQLException {
         String sql = "SELECT id, name, level, hp, defense, attack, attack_rate, move_speed, " +
                     "attack_range, experience FROM enemy_templates";
-        Map<String, EnemyTemplate> templates = new HashMap<>();
+        List<EnemyTemplate> templates = new ArrayList<>();
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -34,26 +36,9 @@ public class EnemyTemplateRepository {
                         rs.getFloat("attack_range"),
                         rs.getInt("experience")
                 );
-                templates.put(template.getName(), template);
+                templates.add(template);
             }
-            cache = Collections.unmodifiableMap(templates);
-            Logger.info("Loaded " + cache.size() + " enemy templates into cache");
-        } catch (SQLException e) {
-            Logger.error("Failed to load enemy templates: " + e.getMessage());
         }
-    }
-
-    public static EnemyTemplate getByName(String name) {
-        if (cache.isEmpty()) {
-            loadTemplates();
-        }
-        return cache.get(name);
-    }
-
-    public static Map<String, EnemyTemplate> getCache() {
-        if (cache.isEmpty()) {
-            loadTemplates();
-        }
-        return cache;
+        return templates;
     }
 }
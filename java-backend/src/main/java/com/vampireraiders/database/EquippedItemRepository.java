@@ -1,5 +1,7 @@
 package com.vampireraiders.database;
 
+import com.vampireraiders.config.ServerConfig;
+import com.vampireraiders.game.EquippedItem;
 import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
@@ -8,48 +10,63 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class EquippedItemRepository {
 
-    // Cache: playerId -> equipped slot map
-    // Pattern mirrors EnemyItemRepository: lazy load + explicit invalidation after DB writes.
-    private static volatile Map<Integer, Map<String, Map<String, Object>>> cache = Collections.emptyMap();
-
-    public static synchronized void invalidateCacheForPlayer(int playerId) {
-        if (cache.isEmpty()) return;
-        Map<Integer, Map<String, Map<String, Object>>> next = new HashMap<>(cache);
-        next.remove(playerId);
-        cache = Collections.unmodifiableMap(next);
-    }
-
-    private static Map<String, Map<String, Object>> getCachedEquippedItems(int playerId) {
-        if (cache.isEmpty() || !cache.containsKey(playerId)) {
-            loadPlayerIntoCache(playerId);
-        }
-        return deepCopyEquippedItems(cache.getOrDefault(playerId, Collections.emptyMap()));
-    }
-
-    private static synchronized void loadPlayerIntoCache(int playerId) {
-        Map<String, Map<String, Object>> loaded = getEquippedItemsFromDb(playerId);
-        Map<Integer, Map<String, Map<String, Object>>> next = new HashMap<>(cache);
-        next.put(playerId, deepCopyEquippedItems(loaded));
-        cache = Collections.unmodifiableMap(next);
+    // Cache: playerId -> immutable slot map. Each player's entry is loaded and invalidated on its own,
+    // so a change for one player never copies or locks the others.
+    private static final Map<Integer, Map<String, EquippedItem>> cache = new ConcurrentHashMap<>();
+    private static final int maxCachedPlayers = ServerConfig.getInstance().getEquippedCacheMaxPlayers();
+    // Invalidations per stripe of player ids: a load only caches its result if no invalidation
+    // for the player happened since it started, so a read racing an equip can't stick.
+    private static final AtomicLongArray invalidationsByStripe = new AtomicLongArray(64);
+
+    // Column indexes of the equipped items query (slot columns, then EQUIPPED_ITEM_MAPPER columns)
+    private static final int COL_WEAPON = 1;
+    private static final int COL_GLOVES = 2;
+    private static final int COL_ARMOR = 3;
+    private static final int COL_BOOTS = 4;
+    private static final int COL_INVENTORY_ID = 5;
+    private static final int COL_WORLD_ITEM_ID = 6;
+    private static final int COL_ITEM_TEMPLATE_ID = 7;
+    private static final int COL_NAME = 8;
+    private static final int COL_TYPE = 9;
+    private static final int COL_DAMAGE = 10;
+    private static final int COL_DEFENSE = 11;
+    private static final int COL_ATTACK_SPEED = 12;
+    private static final int COL_ATTACK_RANGE = 13;
+    private static final int COL_ATTACK_TYPE = 14;
+    private static final int COL_RARITY = 15;
+    private static final int COL_STACKABLE = 16;
+    private static final RowMapper<EquippedItem> EQUIPPED_ITEM_MAPPER = rs -> new EquippedItem(
+            rs.getLong(COL_INVENTORY_ID),
+            rs.getLong(COL_WORLD_ITEM_ID),
+            rs.getInt(COL_ITEM_TEMPLATE_ID),
+            rs.getString(COL_NAME),
+            rs.getString(COL_TYPE),
+            rs.getInt(COL_DAMAGE),
+            rs.getInt(COL_DEFENSE),
+            rs.getFloat(COL_ATTACK_SPEED),
+            rs.getFloat(COL_ATTACK_RANGE),
+            rs.getString(COL_ATTACK_TYPE),
+            rs.getString(COL_RARITY),
+            rs.getBoolean(COL_STACKABLE));
+
+    /**
+     * Drop a player's entry (after their equipment changes, or when they go offline).
+     */
+    public static void invalidateCacheForPlayer(int playerId) {
+        // Bump before removing: a load that already checked its stamp has cached by now and is removed
+        invalidationsByStripe.incrementAndGet(stripeOf(playerId));
+        cache.remove(playerId);
     }
 
-    private static Map<String, Map<String, Object>> deepCopyEquippedItems(Map<String, Map<String, Object>> src) {
-        Map<String, Map<String, Object>> copy = new HashMap<>();
-        if (src == null) {
-            return copy;
-        }
-        for (Map.Entry<String, Map<String, Object>> e : src.entrySet()) {
-            if (e.getValue() == null) {
-                copy.put(e.getKey(), null);
-            } else {
-                copy.put(e.getKey(), new HashMap<>(e.getValue()));
-            }
-        }
-        return copy;
+    public static int getCachedPlayerCount() {
+        return cache.size();
     }
 
     public static boolean equipItem(int playerId, long inventoryId, String slotType) {
@@ -73,6 +90,23 @@ public class EquippedItemRepository {
         }
     }
 
+    public static void unequipItem(UnitOfWork uow, int playerId, String slotType) throws SQLException {
+        PreparedStatement stmt = uow.batch("UPDATE equipped_items SET " + slotType + " = NULL WHERE player_id = ?");
+        stmt.setInt(1, playerId);
+        stmt.addBatch();
+        uow.afterCommit(() -> invalidateCacheForPlayer(playerId));
+    }
+
+    /**
+     * Empty every equipment slot of the player in one statement (death drop).
+     */
+    public static void unequipAll(UnitOfWork uow, int playerId) throws SQLException {
+        PreparedStatement stmt = uow.batch("UPDATE equipped_items SET weapon = NULL, gloves = NULL, armor = NULL, boots = NULL WHERE player_id = ?");
+        stmt.setInt(1, playerId);
+        stmt.addBatch();
+        uow.afterCommit(() -> invalidateCacheForPlayer(playerId));
+    }
+
     public static boolean unequipItem(int playerId, String slotType) {
         String sql = "UPDATE equipped_items SET " + slotType + " = NULL WHERE player_id = ?";
         
@@ -90,14 +124,66 @@ public class EquippedItemRepository {
         }
     }
 
-    public static Map<String, Map<String, Object>> getEquippedItems(int playerId) {
-        return getCachedEquippedItems(playerId);
+    /**
+     * Equipped items by slot type (empty slots are absent). The returned map is immutable and shared.
+     */
+    public static Map<String, EquippedItem> getEquippedItems(int playerId) {
+        Map<String, EquippedItem> equipped = cache.get(playerId);
+        if (equipped != null) {
+            return equipped;
+        }
+        // Query outside the map so no bin lock is held during the DB round trip. The result is only
+        // cached if the player wasn't invalidated meanwhile (else it may predate the change and is
+        // just returned); if two loads race, the first one cached wins. Failed loads are not cached.
+        long stamp = invalidationsByStripe.get(stripeOf(playerId));
+        Map<String, EquippedItem> loaded = getEquippedItemsFromDb(playerId);
+        if (loaded == null) {
+            return Collections.emptyMap();
+        }
+        boolean[] stored = new boolean[1];
+        Map<String, EquippedItem> result = cache.compute(playerId, (id, current) -> {
+            if (current != null) {
+                return current;
+            }
+            if (invalidationsByStripe.get(stripeOf(id)) != stamp) {
+                return null;
+            }
+            stored[0] = true;
+            return loaded;
+        });
+        if (result == null) {
+            return loaded;
+        }
+        if (stored[0]) {
+            evictIfNeeded(playerId);
+        }
+        return result;
+    }
+
+    public static EquippedItem getEquippedItem(int playerId, String slotType) {
+        return getEquippedItems(playerId).get(slotType);
+    }
+
+    // Bound the cache; entries are cheap to reload, so arbitrary victims are fine
+    private static void evictIfNeeded(int keepPlayerId) {
+        if (cache.size() <= maxCachedPlayers) {
+            return;
+        }
+        Iterator<Integer> it = cache.keySet().iterator();
+        while (cache.size() > maxCachedPlayers && it.hasNext()) {
+            if (it.next() != keepPlayerId) {
+                it.remove();
+            }
+        }
+    }
+
+    private static int stripeOf(int playerId) {
+        return (playerId & 0x7FFFFFFF) % invalidationsByStripe.length();
     }
 
-    private static Map<String, Map<String, Object>> getEquippedItemsFromDb(int playerId) {
+    private static Map<String, EquippedItem> getEquippedItemsFromDb(int playerId) {
         String sql = "SELECT e.weapon, e.gloves, e.armor, e.boots, " +
-                "inv.id as inv_id, inv.slot_x, inv.slot_y, " +
-                "wi.id as world_item_id, wi.item_template_id, " +
+                "inv.id, wi.id, wi.item_template_id, " +
                 "it.name, it.type, it.damage, it.defense, it.attack_speed, it.attack_range, it.attack_type, it.rarity, it.stackable " +
                 "FROM equipped_items e " +
                 "LEFT JOIN inventory inv ON (e.weapon = inv.id OR e.gloves = inv.id OR e.armor = inv.id OR e.boots = inv.id) " +
@@ -105,20 +191,20 @@ public class EquippedItemRepository {
                 "LEFT JOIN item_templates it ON wi.item_template_id = it.id " +
                 "WHERE e.player_id = ?";
 
-        Map<String, Map<String, Object>> equipped = new HashMap<>();
-        
+        Map<String, EquippedItem> equipped = new HashMap<>();
+
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, playerId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    long weaponId = rs.getLong("weapon");
-                    long glovesId = rs.getLong("gloves");
-                    long armorId = rs.getLong("armor");
-                    long bootsId = rs.getLong("boots");
+                    long weaponId = rs.getLong(COL_WEAPON);
+                    long glovesId = rs.getLong(COL_GLOVES);
+                    long armorId = rs.getLong(COL_ARMOR);
+                    long bootsId = rs.getLong(COL_BOOTS);
                     
                     // Check which slot has the item we're looking at
-                    long invId = rs.getLong("inv_id");
+                    long invId = rs.getLong(COL_INVENTORY_ID);
                     String slotType = null;
                     
                     if (weaponId > 0 && weaponId == invId) slotType = "weapon";
@@ -127,48 +213,15 @@ public class EquippedItemRepository {
                     else if (bootsId > 0 && bootsId == invId) slotType = "boots";
                     
                     if (slotType != null && invId > 0) {
-                        Map<String, Object> item = new HashMap<>();
-                        item.put("inventory_id", invId);
-                        item.put("world_item_id", rs.getLong("world_item_id"));
-                        item.put("item_template_id", rs.getInt("item_template_id"));
-                        item.put("name", rs.getString("name"));
-                        item.put("type", rs.getString("type"));
-                        item.put("damage", rs.getInt("damage"));
-                        item.put("defense", rs.getInt("defense"));
-                        item.put("attack_speed", rs.getFloat("attack_speed"));
-                        item.put("attack_range", rs.getFloat("attack_range"));
-                        item.put("attack_type", rs.getString("attack_type"));
-                        item.put("rarity", rs.getString("rarity"));
-                        item.put("stackable", rs.getBoolean("stackable"));
-                        
-                        equipped.put(slotType, item);
+                        equipped.put(slotType, EQUIPPED_ITEM_MAPPER.map(rs));
                     }
                 }
             }
         } catch (SQLException e) {
             Logger.error("Failed to get equipped items: " + e.getMessage());
+            return null;
         }
         
-        return equipped;
-    }
-
-    public static Map<String, Object> getEquippedWeapon(int playerId) {
-        Map<String, Map<String, Object>> equipped = getEquippedItems(playerId);
-        return equipped.get("weapon");
-    }
-
-    public static Map<String, Object> getEquippedArmor(int playerId) {
-        Map<String, Map<String, Object>> equipped = getEquippedItems(playerId);
-        return equipped.get("armor");
-    }
-
-    public static Map<String, Object> getEquippedGloves(int playerId) {
-        Map<String, Map<String, Object>> equipped = getEquippedItems(playerId);
-        return equipped.get("gloves");
-    }
-
-    public static Map<String, Object> getEquippedBoots(int playerId) {
-        Map<String, Map<String, Object>> equipped = getEquippedItems(playerId);
-        return equipped.get("boots");
+        return Collections.unmodifiableMap(equipped);
     }
 }
@@ -1,25 +1,57 @@
 package com.vampireraiders.database;
 
+import com.vampireraiders.game.InventoryEntry;
 import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 
 public class InventoryRepository {
 
-    public static Map<String, Object> getInventoryItemForPlayerById(int playerId, long inventoryId) {
-        String sql = "SELECT inv.id AS inventory_id, inv.quantity, " +
-                "wi.id AS world_item_id, wi.item_template_id, it.name, it.type, it.stackable " +
-                "FROM inventory inv " +
-                "JOIN world_items wi ON inv.world_item_id = wi.id " +
-                "JOIN item_templates it ON wi.item_template_id = it.id " +
-                "WHERE inv.player_id = ? AND inv.id = ? LIMIT 1";
+    private static final String INSERT_INVENTORY_SQL = "INSERT INTO inventory (player_id, world_item_id, slot_x, slot_y) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_INVENTORY_SQL = "DELETE FROM inventory WHERE id = ?";
+    private static final String INCREMENT_QUANTITY_SQL = "UPDATE inventory SET quantity = quantity + 1 WHERE id = ?";
+    private static final String DECREMENT_QUANTITY_SQL = "UPDATE inventory SET quantity = quantity - 1 WHERE id = ?";
+
+    // Shared SELECT list for INVENTORY_ENTRY_MAPPER; keep the COL_* indexes in the same order
+    private static final String INVENTORY_ENTRY_SELECT = "SELECT inv.id, wi.id, wi.item_template_id, it.name, it.type, " +
+            "it.damage, it.defense, it.rarity, it.stackable, inv.quantity, inv.slot_x, inv.slot_y " +
+            "FROM inventory inv " +
+            "JOIN world_items wi ON inv.world_item_id = wi.id " +
+            "JOIN item_templates it ON wi.item_template_id = it.id ";
+    private static final int COL_INVENTORY_ID = 1;
+    private static final int COL_WORLD_ITEM_ID = 2;
+    private static final int COL_ITEM_TEMPLATE_ID = 3;
+    private static final int COL_NAME = 4;
+    private static final int COL_TYPE = 5;
+    private static final int COL_DAMAGE = 6;
+    private static final int COL_DEFENSE = 7;
+    private static final int COL_RARITY = 8;
+    private static final int COL_STACKABLE = 9;
+    private static final int COL_QUANTITY = 10;
+    private static final int COL_SLOT_X = 11;
+    private static final int COL_SLOT_Y = 12;
+    private static final RowMapper<InventoryEntry> INVENTORY_ENTRY_MAPPER = rs -> new InventoryEntry(
+            rs.getLong(COL_INVENTORY_ID),
+            rs.getLong(COL_WORLD_ITEM_ID),
+            rs.getInt(COL_ITEM_TEMPLATE_ID),
+            rs.getString(COL_NAME),
+            rs.getString(COL_TYPE),
+            rs.getInt(COL_DAMAGE),
+            rs.getInt(COL_DEFENSE),
+            rs.getString(COL_RARITY),
+            rs.getBoolean(COL_STACKABLE),
+            rs.getInt(COL_QUANTITY),
+            rs.getInt(COL_SLOT_X),
+            rs.getInt(COL_SLOT_Y));
+
+    public static InventoryEntry getInventoryItemForPlayerById(int playerId, long inventoryId) {
+        String sql = INVENTORY_ENTRY_SELECT + "WHERE inv.player_id = ? AND inv.id = ? LIMIT 1";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -27,15 +59,7 @@ public class InventoryRepository {
             stmt.setLong(2, inventoryId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("inventory_id", rs.getLong("inventory_id"));
-                    row.put("quantity", rs.getInt("quantity"));
-                    row.put("world_item_id", rs.getLong("world_item_id"));
-                    row.put("item_template_id", rs.getInt("item_template_id"));
-                    row.put("name", rs.getString("name"));
-                    row.put("type", rs.getString("type"));
-                    row.put("stackable", rs.getBoolean("stackable"));
-                    return row;
+                    return INVENTORY_ENTRY_MAPPER.map(rs);
                 }
             }
         } catch (SQLException e) {
@@ -60,34 +84,52 @@ public class InventoryRepository {
         }
     }
 
-    public static List<Map<String, Object>> getInventoryForPlayer(int playerId) {
-        String sql = "SELECT inv.id AS inventory_id, inv.slot_x, inv.slot_y, inv.quantity, " +
-                "wi.id AS world_item_id, wi.item_template_id, it.name, it.type, it.damage, it.defense, it.rarity, it.stackable " +
-                "FROM inventory inv " +
-                "JOIN world_items wi ON inv.world_item_id = wi.id " +
-                "JOIN item_templates it ON wi.item_template_id = it.id " +
-                "WHERE inv.player_id = ?";
+    /**
+     * Insert an inventory row and return its generated id, or -1 on failure.
+     */
+    public static long addInventoryItemAndGetId(int playerId, long worldItemId, int slotX, int slotY) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_INVENTORY_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            return insertInventoryItem(stmt, playerId, worldItemId, slotX, slotY);
+        } catch (SQLException e) {
+            Logger.error("Failed to add inventory item: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Transactional variant; returns the new id, or -1 if no key was generated.
+     */
+    public static long addInventoryItemAndGetId(UnitOfWork uow, int playerId, long worldItemId, int slotX, int slotY) throws SQLException {
+        try (PreparedStatement stmt = uow.prepare(INSERT_INVENTORY_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            return insertInventoryItem(stmt, playerId, worldItemId, slotX, slotY);
+        }
+    }
+
+    private static long insertInventoryItem(PreparedStatement stmt, int playerId, long worldItemId, int slotX, int slotY) throws SQLException {
+        stmt.setInt(1, playerId);
+        stmt.setLong(2, worldItemId);
+        stmt.setInt(3, slotX);
+        stmt.setInt(4, slotY);
+        stmt.executeUpdate();
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        }
+        return -1;
+    }
+
+    public static List<InventoryEntry> getInventoryForPlayer(int playerId) {
+        String sql = INVENTORY_ENTRY_SELECT + "WHERE inv.player_id = ?";
 
-        List<Map<String, Object>> items = new ArrayList<>();
+        List<InventoryEntry> items = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, playerId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("inventory_id", rs.getLong("inventory_id"));
-                    row.put("slot_x", rs.getInt("slot_x"));
-                    row.put("slot_y", rs.getInt("slot_y"));
-                    row.put("quantity", rs.getInt("quantity"));
-                    row.put("world_item_id", rs.getLong("world_item_id"));
-                    row.put("item_template_id", rs.getInt("item_template_id"));
-                    row.put("name", rs.getString("name"));
-                    row.put("type", rs.getString("type"));
-                    row.put("damage", rs.getInt("damage"));
-                    row.put("defense", rs.getInt("defense"));
-                    row.put("rarity", rs.getString("rarity"));
-                    row.put("stackable", rs.getBoolean("stackable"));
-                    items.add(row);
+                    items.add(INVENTORY_ENTRY_MAPPER.map(rs));
                 }
             }
         } catch (SQLException e) {
@@ -111,9 +153,8 @@ public class InventoryRepository {
     }
 
     public static boolean deleteInventoryItem(long inventoryId) {
-        String sql = "DELETE FROM inventory WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE_INVENTORY_SQL)) {
             stmt.setLong(1, inventoryId);
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -122,6 +163,12 @@ public class InventoryRepository {
         }
     }
 
+    public static void deleteInventoryItem(UnitOfWork uow, long inventoryId) throws SQLException {
+        PreparedStatement stmt = uow.batch(DELETE_INVENTORY_SQL);
+        stmt.setLong(1, inventoryId);
+        stmt.addBatch();
+    }
+
     public static Long getWorldItemIdForInventory(long inventoryId) {
         String sql = "SELECT world_item_id FROM inventory WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -138,30 +185,9 @@ public class InventoryRepository {
         return null;
     }
 
-    public static Long findExistingStackableItemTemplate(int playerId, int itemTemplateId) {
-        String sql = "SELECT inv.id FROM inventory inv " +
-                "JOIN world_items wi ON inv.world_item_id = wi.id " +
-                "JOIN item_templates it ON wi.item_template_id = it.id " +
-                "WHERE inv.player_id = ? AND wi.item_template_id = ? AND it.stackable = TRUE LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, playerId);
-            stmt.setInt(2, itemTemplateId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
-        } catch (SQLException e) {
-            Logger.error("Failed to find existing stackable item: " + e.getMessage());
-        }
-        return null;
-    }
-
     public static boolean incrementItemQuantity(long inventoryId) {
-        String sql = "UPDATE inventory SET quantity = quantity + 1 WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(INCREMENT_QUANTITY_SQL)) {
             stmt.setLong(1, inventoryId);
             stmt.executeUpdate();
             return true;
@@ -171,10 +197,15 @@ public class InventoryRepository {
         }
     }
 
+    public static void incrementItemQuantity(UnitOfWork uow, long inventoryId) throws SQLException {
+        PreparedStatement stmt = uow.batch(INCREMENT_QUANTITY_SQL);
+        stmt.setLong(1, inventoryId);
+        stmt.addBatch();
+    }
+
     public static boolean decrementItemQuantity(long inventoryId) {
-        String sql = "UPDATE inventory SET quantity = quantity - 1 WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DECREMENT_QUANTITY_SQL)) {
             stmt.setLong(1, inventoryId);
             stmt.executeUpdate();
             return true;
@@ -184,42 +215,9 @@ public class InventoryRepository {
         }
     }
 
-    public static int[] findNextAvailableSlot(int playerId, int gridCols, int gridRows) {
-        // Fetch all occupied slots, EXCLUDING equipped items
-        // Equipped items remain in inventory table but their slots should be available for new items
-        String sql = "SELECT i.slot_x, i.slot_y FROM inventory i " +
-                     "LEFT JOIN equipped_items e ON e.player_id = i.player_id " +
-                     "AND (e.weapon = i.id OR e.gloves = i.id OR e.armor = i.id OR e.boots = i.id) " +
-                     "WHERE i.player_id = ? AND e.player_id IS NULL " +
-                     "ORDER BY i.slot_y, i.slot_x";
-        java.util.Set<String> occupied = new java.util.HashSet<>();
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, playerId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    int x = rs.getInt("slot_x");
-                    int y = rs.getInt("slot_y");
-                    occupied.add(x + "," + y);
-                }
-            }
-        } catch (SQLException e) {
-            Logger.error("Failed to find available slot: " + e.getMessage());
-        }
-        
-        // Find first empty slot (left-to-right, top-to-bottom)
-        for (int y = 0; y < gridRows; y++) {
-            for (int x = 0; x < gridCols; x++) {
-                if (!occupied.contains(x + "," + y)) {
-                    Logger.debug("Next available slot: (" + x + "," + y + ")");
-                    return new int[]{x, y};
-                }
-            }
-        }
-        
-        // Grid full, return (0, 0) as fallback
-        Logger.warn("Inventory grid full for player " + playerId);
-        return new int[]{0, 0};
+    public static void decrementItemQuantity(UnitOfWork uow, long inventoryId) throws SQLException {
+        PreparedStatement stmt = uow.batch(DECREMENT_QUANTITY_SQL);
+        stmt.setLong(1, inventoryId);
+        stmt.addBatch();
     }
 }
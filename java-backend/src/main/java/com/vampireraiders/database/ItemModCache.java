@@ -0,0 +1,116 @@
+package com.vampireraiders.database;
+
+import com.vampireraiders.game.ItemModValue;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of item mods keyed by world_item_id.
+ * Items without mods are cached too (as an empty list) so "no mods" answers are also free.
+ *
+ * The bound is on total weight rather than entry count: each item weighs the number of
+ * mods it carries (minimum 1), so a few heavily modded items can't blow the budget.
+ *
+ * Fills after a database read go through putIfUnchanged with a stamp taken before the read:
+ * if the item was invalidated in between (e.g. an upsert committed), the possibly stale result
+ * is not cached. Invalidations are counted per stripe of ids, so the bookkeeping stays bounded.
+ */
+class ItemModCache {
+    private final long maxWeight;
+    private final LinkedHashMap<Long, List<ItemModValue>> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private final long[] invalidationsByStripe = new long[64];
+
+    ItemModCache(long maxWeight) {
+        this.maxWeight = Math.max(1, maxWeight);
+    }
+
+    /**
+     * Cached mods for the item, or null on a miss.
+     */
+    synchronized List<ItemModValue> get(long worldItemId) {
+        List<ItemModValue> mods = entries.get(worldItemId);
+        if (mods == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return mods;
+    }
+
+    /**
+     * Store an item's mods; the list is copied into an immutable one.
+     */
+    synchronized List<ItemModValue> put(long worldItemId, List<ItemModValue> mods) {
+        List<ItemModValue> frozen = freeze(mods);
+        List<ItemModValue> previous = entries.put(worldItemId, frozen);
+        if (previous != null) {
+            weight -= weightOf(previous);
+        }
+        weight += weightOf(frozen);
+        evictIfNeeded();
+        return frozen;
+    }
+
+    /**
+     * Stamp to take before reading an item's mods from the database, for putIfUnchanged.
+     */
+    synchronized long stamp(long worldItemId) {
+        return invalidationsByStripe[stripeOf(worldItemId)];
+    }
+
+    /**
+     * Like put, but only caches if the item was not invalidated since the stamp was taken.
+     * Returns the frozen list either way.
+     */
+    synchronized List<ItemModValue> putIfUnchanged(long worldItemId, List<ItemModValue> mods, long stamp) {
+        if (invalidationsByStripe[stripeOf(worldItemId)] != stamp) {
+            return freeze(mods);
+        }
+        return put(worldItemId, mods);
+    }
+
+    synchronized void invalidate(long worldItemId) {
+        invalidationsByStripe[stripeOf(worldItemId)]++;
+        List<ItemModValue> removed = entries.remove(worldItemId);
+        if (removed != null) {
+            weight -= weightOf(removed);
+        }
+    }
+
+    synchronized String getStats() {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : (hits * 100.0) / lookups;
+        return String.format("items=%d weight=%d/%d hits=%d misses=%d (%.1f%% hit) evictions=%d",
+                entries.size(), weight, maxWeight, hits, misses, hitRate, evictions);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Long, List<ItemModValue>>> it = entries.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            Map.Entry<Long, List<ItemModValue>> eldest = it.next();
+            weight -= weightOf(eldest.getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private int stripeOf(long worldItemId) {
+        return (Long.hashCode(worldItemId) & 0x7FFFFFFF) % invalidationsByStripe.length;
+    }
+
+    private static int weightOf(List<ItemModValue> mods) {
+        return Math.max(1, mods.size());
+    }
+
+    private static List<ItemModValue> freeze(List<ItemModValue> mods) {
+        return mods.isEmpty() ? Collections.emptyList() : List.copyOf(mods);
+    }
+}
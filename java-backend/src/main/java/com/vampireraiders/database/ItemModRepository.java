@@ -1,5 +1,8 @@
 package com.vampireraiders.database;
 
+import com.vampireraiders.config.ServerConfig;
+import com.vampireraiders.game.ItemModValue;
+import com.vampireraiders.game.ModTemplate;
 import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
@@ -7,181 +10,229 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ItemModRepository {
-    // Cache for mod_templates (never changes in runtime)
-    private static volatile List<Map<String, Object>> modTemplateCache = Collections.emptyList();
+    // Upper bound on placeholders per IN-list query
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Per-item-instance mods, keyed by world_item_id (invalidated on upsert and world item delete)
+    private static final ItemModCache modCache = new ItemModCache(ServerConfig.getInstance().getItemModCacheMaxWeight());
+
+    // Column indexes of MOD_TEMPLATE_MAPPER (SELECT id, mod_type, mod_value, mod_name)
+    private static final int TEMPLATE_COL_ID = 1;
+    private static final int TEMPLATE_COL_MOD_TYPE = 2;
+    private static final int TEMPLATE_COL_MOD_VALUE = 3;
+    private static final int TEMPLATE_COL_MOD_NAME = 4;
+    private static final RowMapper<ModTemplate> MOD_TEMPLATE_MAPPER = rs -> new ModTemplate(
+            rs.getInt(TEMPLATE_COL_ID),
+            rs.getString(TEMPLATE_COL_MOD_TYPE),
+            rs.getInt(TEMPLATE_COL_MOD_VALUE),
+            rs.getString(TEMPLATE_COL_MOD_NAME));
+
+    // Column indexes read by mapItemMod (SELECT mt.mod_type, mt.mod_value, mt.mod_name);
+    // the batched query passes an offset of one for its leading im.world_item_id
+    private static final int MOD_COL_MOD_TYPE = 1;
+    private static final int MOD_COL_MOD_VALUE = 2;
+    private static final int MOD_COL_MOD_NAME = 3;
 
     /**
-     * Load all mod templates from database into cache.
-     * Should be called once at startup.
+     * Read all mod templates. Served to the game through TemplateRegistry (see StaticDataLoader).
      */
-    public static synchronized void loadModTemplates() {
+    public static List<ModTemplate> loadModTemplates() throws SQLException {
         String sql = "SELECT id, mod_type, mod_value, mod_name FROM mod_templates ORDER BY mod_type, mod_value";
-        List<Map<String, Object>> templates = new ArrayList<>();
+        List<ModTemplate> templates = new ArrayList<>();
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                Map<String, Object> modTemplate = new HashMap<>();
-                modTemplate.put("id", rs.getInt("id"));
-                modTemplate.put("mod_type", rs.getString("mod_type"));
-                modTemplate.put("mod_value", rs.getInt("mod_value"));
-                modTemplate.put("mod_name", rs.getString("mod_name"));
-                templates.add(modTemplate);
+                templates.add(MOD_TEMPLATE_MAPPER.map(rs));
             }
-            modTemplateCache = Collections.unmodifiableList(templates);
-            Logger.info("Loaded " + modTemplateCache.size() + " mod templates into cache");
-        } catch (SQLException e) {
-            Logger.error("Failed to load mod templates: " + e.getMessage());
         }
+        return templates;
     }
 
-    public static List<Map<String, Object>> getModTemplateCache() {
-        if (modTemplateCache.isEmpty()) {
-            loadModTemplates();
-        }
-        return modTemplateCache;
+    public static boolean hasModsForWorldItem(long worldItemId) {
+        return !getModsForWorldItem(worldItemId).isEmpty();
     }
 
-    public static boolean hasModsForWorldItem(long worldItemId) {
-        String sql = "SELECT 1 FROM item_mods WHERE world_item_id = ? LIMIT 1";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, worldItemId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            Logger.error("Failed to check item mods: " + e.getMessage());
+    /**
+     * Mods of one world item (immutable). Served from the mod cache when possible.
+     */
+    public static List<ItemModValue> getModsForWorldItem(long worldItemId) {
+        List<ItemModValue> cached = modCache.get(worldItemId);
+        if (cached != null) {
+            return cached;
         }
-        return false;
-    }
+        long stamp = modCache.stamp(worldItemId);
 
-    public static List<Map<String, Object>> getModsForWorldItem(long worldItemId) {
         String sql = "SELECT mt.mod_type, mt.mod_value, mt.mod_name " +
                 "FROM item_mods im " +
                 "JOIN mod_templates mt ON im.mod_template_id = mt.id " +
                 "WHERE im.world_item_id = ? " +
                 "ORDER BY mt.mod_type, mt.mod_value";
 
-        List<Map<String, Object>> mods = new ArrayList<>();
+        List<ItemModValue> mods = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, worldItemId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("mod_type", rs.getString("mod_type"));
-                    row.put("mod_value", rs.getInt("mod_value"));
-                    row.put("mod_name", rs.getString("mod_name"));
-                    mods.add(row);
+                    mods.add(mapItemMod(rs, 0));
                 }
             }
         } catch (SQLException e) {
             Logger.error("Failed to fetch item mods: " + e.getMessage());
+            return mods; // Don't cache failures
         }
 
-        return mods;
+        return modCache.putIfUnchanged(worldItemId, mods, stamp);
     }
 
-    public static Integer getModTemplateId(String modType, int modValue) {
-        // Use cached mod templates to avoid DB query
-        for (Map<String, Object> modTemplate : getModTemplateCache()) {
-            if (modType.equals(modTemplate.get("mod_type")) && 
-                modValue == ((Number) modTemplate.get("mod_value")).intValue()) {
-                return ((Number) modTemplate.get("id")).intValue();
+    /**
+     * Fetch the mods of many world items in one query per MAX_BATCH_SIZE ids.
+     * Items without mods are absent from the returned map.
+     */
+    public static Map<Long, List<ItemModValue>> getModsForWorldItems(Collection<Long> worldItemIds) {
+        Map<Long, List<ItemModValue>> modsByItem = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Long> stamps = new HashMap<>();
+        for (Long worldItemId : worldItemIds) {
+            List<ItemModValue> cached = modCache.get(worldItemId);
+            if (cached == null) {
+                ids.add(worldItemId);
+                stamps.put(worldItemId, modCache.stamp(worldItemId));
+            } else if (!cached.isEmpty()) {
+                modsByItem.put(worldItemId, cached);
+            }
+        }
+        if (ids.isEmpty()) {
+            return modsByItem;
+        }
+
+        Map<Long, List<ItemModValue>> fetched = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int start = 0; start < ids.size(); start += MAX_BATCH_SIZE) {
+                List<Long> batch = ids.subList(start, Math.min(ids.size(), start + MAX_BATCH_SIZE));
+                String sql = "SELECT im.world_item_id, mt.mod_type, mt.mod_value, mt.mod_name " +
+                        "FROM item_mods im " +
+                        "JOIN mod_templates mt ON im.mod_template_id = mt.id " +
+                        "WHERE im.world_item_id IN (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ") " +
+                        "ORDER BY im.world_item_id, mt.mod_type, mt.mod_value";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setLong(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            fetched.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(mapItemMod(rs, 1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            Logger.error("Failed to fetch item mods in batch: " + e.getMessage());
+            modsByItem.putAll(fetched);
+            return modsByItem; // Don't cache partial results
+        }
+
+        // Cache every requested id, including the ones without mods, unless it changed meanwhile
+        for (Long worldItemId : ids) {
+            List<ItemModValue> mods = modCache.putIfUnchanged(worldItemId,
+                    fetched.getOrDefault(worldItemId, Collections.emptyList()), stamps.get(worldItemId));
+            if (!mods.isEmpty()) {
+                modsByItem.put(worldItemId, mods);
             }
         }
-        return null;
+        return modsByItem;
     }
 
-    public static int getMaxModValue(String modType) {
-        // Use cached mod templates to avoid DB query
-        int maxValue = 0;
-        for (Map<String, Object> modTemplate : getModTemplateCache()) {
-            if (modType.equals(modTemplate.get("mod_type"))) {
-                int modValue = ((Number) modTemplate.get("mod_value")).intValue();
-                if (modValue > maxValue) {
-                    maxValue = modValue;
-                }
+    /**
+     * Highest mod_value of the given type in an already-fetched mod list, or 0 if none.
+     */
+    public static int getModValue(List<ItemModValue> mods, String modType) {
+        int value = 0;
+        if (mods == null) {
+            return value;
+        }
+        for (ItemModValue mod : mods) {
+            if (modType.equals(mod.getModType())) {
+                value = Math.max(value, mod.getModValue());
             }
         }
-        return maxValue;
+        return value;
+    }
+
+    private static ItemModValue mapItemMod(ResultSet rs, int offset) throws SQLException {
+        return new ItemModValue(
+                rs.getString(offset + MOD_COL_MOD_TYPE),
+                rs.getInt(offset + MOD_COL_MOD_VALUE),
+                rs.getString(offset + MOD_COL_MOD_NAME));
     }
 
     /**
      * Returns the current mod_value for the given world item and mod type, or 0 if none.
      */
     public static int getModValueForWorldItem(long worldItemId, String modType) {
-        String sql = "SELECT mt.mod_value " +
-                "FROM item_mods im " +
-                "JOIN mod_templates mt ON im.mod_template_id = mt.id " +
-                "WHERE im.world_item_id = ? AND mt.mod_type = ? " +
-                "ORDER BY mt.mod_value DESC LIMIT 1";
+        return getModValue(getModsForWorldItem(worldItemId), modType);
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, worldItemId);
-            stmt.setString(2, modType);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("mod_value");
-                }
-            }
-        } catch (SQLException e) {
-            Logger.error("Failed to get item mod value: " + e.getMessage());
-        }
-        return 0;
+    /**
+     * Drop the cached mods of a world item (after its mods change or the item is deleted).
+     */
+    public static void invalidateWorldItem(long worldItemId) {
+        modCache.invalidate(worldItemId);
+    }
+
+    public static String getCacheStats() {
+        return modCache.getStats();
     }
 
     /**
      * Upserts a mod of a given type on a world item by setting it to the given mod template.
      */
     public static boolean upsertWorldItemMod(long worldItemId, String modType, int modTemplateId) {
+        // Invalidate even if the write fails part-way; the next read reloads from the DB
+        invalidateWorldItem(worldItemId);
+        return UnitOfWork.run("upsert " + modType + " mod on world item " + worldItemId,
+                uow -> upsertWorldItemMod(uow, worldItemId, modType, modTemplateId));
+    }
+
+    public static void upsertWorldItemMod(UnitOfWork uow, long worldItemId, String modType, int modTemplateId) throws SQLException {
         // Check if a mod of this type already exists for the world item
         String findSql = "SELECT im.id " +
                 "FROM item_mods im " +
                 "JOIN mod_templates mt ON im.mod_template_id = mt.id " +
                 "WHERE im.world_item_id = ? AND mt.mod_type = ? LIMIT 1";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement findStmt = conn.prepareStatement(findSql)) {
+        Long itemModId = null;
+        try (PreparedStatement findStmt = uow.prepare(findSql)) {
             findStmt.setLong(1, worldItemId);
             findStmt.setString(2, modType);
-
-            Long itemModId = null;
             try (ResultSet rs = findStmt.executeQuery()) {
                 if (rs.next()) {
                     itemModId = rs.getLong(1);
                 }
             }
+        }
 
-            if (itemModId != null) {
-                String updateSql = "UPDATE item_mods SET mod_template_id = ? WHERE id = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                    updateStmt.setInt(1, modTemplateId);
-                    updateStmt.setLong(2, itemModId);
-                    return updateStmt.executeUpdate() > 0;
-                }
-            } else {
-                String insertSql = "INSERT INTO item_mods (world_item_id, mod_template_id) VALUES (?, ?)";
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                    insertStmt.setLong(1, worldItemId);
-                    insertStmt.setInt(2, modTemplateId);
-                    return insertStmt.executeUpdate() > 0;
-                }
-            }
-
-        } catch (SQLException e) {
-            Logger.error("Failed to upsert world item mod: " + e.getMessage());
-            return false;
+        if (itemModId != null) {
+            PreparedStatement updateStmt = uow.batch("UPDATE item_mods SET mod_template_id = ? WHERE id = ?");
+            updateStmt.setInt(1, modTemplateId);
+            updateStmt.setLong(2, itemModId);
+            updateStmt.addBatch();
+        } else {
+            PreparedStatement insertStmt = uow.batch("INSERT INTO item_mods (world_item_id, mod_template_id) VALUES (?, ?)");
+            insertStmt.setLong(1, worldItemId);
+            insertStmt.setInt(2, modTemplateId);
+            insertStmt.addBatch();
         }
+        uow.afterCommit(() -> invalidateWorldItem(worldItemId));
     }
 }
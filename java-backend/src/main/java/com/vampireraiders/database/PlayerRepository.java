@@ -1,8 +1,11 @@
 package com.vampireraiders.database;
 
 import com.vampireraiders.game.Player;
+import com.vampireraiders.game.PlayerRecord;
 import com.vampireraiders.util.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.sql.*;
 
 public class PlayerRepository {
@@ -15,14 +18,14 @@ public class PlayerRepository {
                      "VALUES (?, 'pass', ?, ?, ?, ?, ?, ?, ?, ?) " +
                      "ON DUPLICATE KEY UPDATE level=?, experience=?, health=?, max_health=?, xp=?, x=?, y=?, move_speed=?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection(DatabaseConnection.Workload.PERSISTENCE);
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, player.getUsername());
             stmt.setInt(2, player.getLevel());
             stmt.setLong(3, player.getXP());
             stmt.setInt(4, player.getHealth());
-            stmt.setInt(5, player.getMaxHealth());
+            stmt.setInt(5, player.getBaseMaxHealth());
             stmt.setInt(6, player.getXP());
             stmt.setFloat(7, player.getX());
             stmt.setFloat(8, player.getY());
@@ -32,7 +35,7 @@ public class PlayerRepository {
             stmt.setInt(10, player.getLevel());
             stmt.setLong(11, player.getXP());
             stmt.setInt(12, player.getHealth());
-            stmt.setInt(13, player.getMaxHealth());
+            stmt.setInt(13, player.getBaseMaxHealth());
             stmt.setInt(14, player.getXP());
             stmt.setFloat(15, player.getX());
             stmt.setFloat(16, player.getY());
@@ -47,72 +50,80 @@ public class PlayerRepository {
     }
 
     /**
-     * Load a player from the database by username
+     * Outcome of a login attempt. The record is only set when the status is OK.
      */
-    public static Player loadPlayerByUsername(String username) {
-        String sql = "SELECT id, username, level, experience, health, max_health, xp, x, y, move_speed FROM players WHERE username = ?";
+    public enum AuthStatus { OK, UNKNOWN_USER, BAD_PASSWORD, ERROR }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public static final class AuthResult {
+        private final AuthStatus status;
+        private final PlayerRecord record;
 
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                int databaseId = rs.getInt("id");
-                String dbUsername = rs.getString("username");
-                int level = rs.getInt("level");
-                long experience = rs.getLong("experience");
-                int health = rs.getInt("health");
-                int maxHealth = rs.getInt("max_health");
-                int xp = rs.getInt("xp");
-                float x = rs.getFloat("x");
-                float y = rs.getFloat("y");
-                float moveSpeed = rs.getFloat("move_speed");
-
-                Player player = new Player(databaseId, dbUsername, x, y);
-                player.setDatabaseId(databaseId);  // Also set the database ID explicitly
-                player.setLevel(level);
-                player.setXP(xp);
-                player.setHealth(health);
-                player.setMaxHealth(maxHealth);
-                player.setMoveSpeed(moveSpeed);
-
-                Logger.info("Loaded player " + username + " from database with ID: " + databaseId);
-                return player;
-            }
-        } catch (SQLException e) {
-            Logger.error("Failed to load player " + username + ": " + e.getMessage());
-            e.printStackTrace();
+        private AuthResult(AuthStatus status, PlayerRecord record) {
+            this.status = status;
+            this.record = record;
         }
 
-        return null;
+        public AuthStatus getStatus() { return status; }
+        public PlayerRecord getRecord() { return record; }
     }
 
+    // Column indexes of AUTHENTICATE_SQL, read by PLAYER_RECORD_MAPPER (after the password check)
+    private static final String AUTHENTICATE_SQL = "SELECT password, id, username, level, health, max_health, xp, x, y " +
+            "FROM players WHERE username = ?";
+    private static final int COL_PASSWORD = 1;
+    private static final int COL_ID = 2;
+    private static final int COL_USERNAME = 3;
+    private static final int COL_LEVEL = 4;
+    private static final int COL_HEALTH = 5;
+    private static final int COL_MAX_HEALTH = 6;
+    private static final int COL_XP = 7;
+    private static final int COL_X = 8;
+    private static final int COL_Y = 9;
+    private static final RowMapper<PlayerRecord> PLAYER_RECORD_MAPPER = rs -> new PlayerRecord(
+            rs.getInt(COL_ID),
+            rs.getString(COL_USERNAME),
+            rs.getInt(COL_LEVEL),
+            rs.getInt(COL_HEALTH),
+            rs.getInt(COL_MAX_HEALTH),
+            rs.getInt(COL_XP),
+            rs.getFloat(COL_X),
+            rs.getFloat(COL_Y));
+
     /**
-     * Check if a player exists
+     * Check the credentials and load the saved player in a single query.
      */
-    public static boolean playerExists(String username) {
-        String sql = "SELECT id FROM players WHERE username = ?";
-
+    public static AuthResult authenticate(String username, String password) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(AUTHENTICATE_SQL)) {
 
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return new AuthResult(AuthStatus.UNKNOWN_USER, null);
+                }
+                if (!passwordMatches(rs.getString(COL_PASSWORD), password)) {
+                    return new AuthResult(AuthStatus.BAD_PASSWORD, null);
+                }
+                return new AuthResult(AuthStatus.OK, PLAYER_RECORD_MAPPER.map(rs));
+            }
         } catch (SQLException e) {
-            Logger.error("Failed to check player existence: " + e.getMessage());
-            e.printStackTrace();
+            Logger.error("Failed to authenticate player " + username + ": " + e.getMessage());
+            return new AuthResult(AuthStatus.ERROR, null);
         }
+    }
 
-        return false;
+    // Constant-time comparison, so response timing doesn't reveal how much of the password matched
+    private static boolean passwordMatches(String stored, String provided) {
+        if (stored == null || provided == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), provided.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Create a new player in the database
+     * Create a new player in the database; returns its record, or null on failure.
      */
-    public static Player createNewPlayer(String username, String password) {
+    public static PlayerRecord createNewPlayer(String username, String password) {
         String sql = "INSERT INTO players (username, password, level, experience, health, max_health, xp, x, y) " +
                      "VALUES (?, ?, 1, 0, 100, 100, 0, 8000.0, 8000.0)";
 
@@ -123,40 +134,17 @@ public class PlayerRepository {
             stmt.setString(2, password);
             stmt.executeUpdate();
 
-            ResultSet generatedKeys = stmt.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                int playerId = generatedKeys.getInt(1);
-                Player player = new Player(playerId, username, 8000, 8000);
-                player.setDatabaseId(playerId);  // Set database ID
-                Logger.info("Created new player " + username + " in database with ID: " + playerId);
-                return player;
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    int playerId = generatedKeys.getInt(1);
+                    Logger.info("Created new player " + username + " in database with ID: " + playerId);
+                    return new PlayerRecord(playerId, username, 1, 100, 100, 0, 8000, 8000);
+                }
             }
         } catch (SQLException e) {
             Logger.error("Failed to create new player " + username + ": " + e.getMessage());
-            e.printStackTrace();
         }
 
         return null;
     }
-
-    /**
-     * Validate username and password
-     */
-    public static boolean validateCredentials(String username, String password) {
-        String sql = "SELECT id FROM players WHERE username = ? AND password = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
-        } catch (SQLException e) {
-            Logger.error("Failed to validate credentials: " + e.getMessage());
-            e.printStackTrace();
-        }
-
-        return false;
-    }
 }
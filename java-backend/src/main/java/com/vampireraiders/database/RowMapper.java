@@ -0,0 +1,13 @@
+package com.vampireraiders.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current ResultSet row to one typed object.
+ * Mappers read columns by index, so each one is paired with the SELECT it was written for.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
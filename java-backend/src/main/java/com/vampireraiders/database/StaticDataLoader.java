@@ -0,0 +1,72 @@
+package com.vampireraiders.database;
+
+import com.vampireraiders.game.EnemyItem;
+import com.vampireraiders.game.EnemyTemplate;
+import com.vampireraiders.game.ItemTemplate;
+import com.vampireraiders.game.ModTemplate;
+import com.vampireraiders.game.TemplateRegistry;
+import com.vampireraiders.util.Logger;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads all static template tables in parallel and swaps them in as one TemplateRegistry.
+ *
+ * Used at startup and by the console "reload" command. Either every table loads and the new
+ * snapshot replaces the old one atomically, or nothing changes; gameplay code never reloads.
+ */
+public class StaticDataLoader {
+    private static final int LOADER_THREADS = 4;
+
+    @FunctionalInterface
+    private interface Query<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Load and install a new snapshot. Returns false (keeping the current one) if any table failed.
+     */
+    public static synchronized boolean reload() {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(LOADER_THREADS, r -> {
+            Thread t = new Thread(r, "StaticDataLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletableFuture<List<ItemTemplate>> items = async(pool, ItemTemplateRepository::loadTemplates);
+            CompletableFuture<List<EnemyTemplate>> enemies = async(pool, EnemyTemplateRepository::loadTemplates);
+            CompletableFuture<Map<Integer, List<EnemyItem>>> drops = async(pool, EnemyItemRepository::loadDrops);
+            CompletableFuture<List<ModTemplate>> mods = async(pool, ItemModRepository::loadModTemplates);
+            CompletableFuture.allOf(items, enemies, drops, mods).join();
+
+            TemplateRegistry registry = TemplateRegistry.build(items.join(), enemies.join(), drops.join(), mods.join());
+            TemplateRegistry.install(registry);
+            Logger.info("Static data loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return true;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            Logger.error("Failed to load static data, keeping registry v" + TemplateRegistry.get().getVersion() +
+                    ": " + cause.getMessage());
+            return false;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static <T> CompletableFuture<T> async(ExecutorService pool, Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.run();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, pool);
+    }
+}
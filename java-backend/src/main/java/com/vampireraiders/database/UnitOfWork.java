@@ -0,0 +1,125 @@
+package com.vampireraiders.database;
+
+import com.vampireraiders.util.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a sequence of repository operations on one connection in one transaction.
+ *
+ * Repository overloads that take a UnitOfWork either queue their statement with addBatch()
+ * (writes whose result isn't needed) or execute it immediately (claims, inserts that return ids).
+ * Queued statements are grouped per SQL string and executed in first-use order; any pending
+ * batches are flushed before an immediate statement runs, so statement order is preserved.
+ *
+ * Cache invalidations registered with afterCommit() only run once the transaction commits.
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Work {
+        void execute(UnitOfWork uow) throws SQLException;
+    }
+
+    private final Connection conn;
+    private final Map<String, PreparedStatement> batches = new LinkedHashMap<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean committed = false;
+
+    private UnitOfWork(Connection conn) throws SQLException {
+        this.conn = conn;
+        conn.setAutoCommit(false);
+    }
+
+    public static UnitOfWork begin() throws SQLException {
+        return new UnitOfWork(DatabaseConnection.getConnection());
+    }
+
+    /**
+     * Run the work in a transaction. Returns false (after rolling back) if any statement failed.
+     */
+    public static boolean run(String description, Work work) {
+        try (UnitOfWork uow = begin()) {
+            work.execute(uow);
+            uow.commit();
+            return true;
+        } catch (SQLException e) {
+            Logger.error("Transaction failed (" + description + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Statement for an immediate execution; pending batches run first.
+     * The caller owns (and closes) the returned statement.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        flushBatches();
+        return conn.prepareStatement(sql);
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        flushBatches();
+        return conn.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Shared statement for the SQL; the caller sets parameters and calls addBatch().
+     */
+    PreparedStatement batch(String sql) throws SQLException {
+        PreparedStatement stmt = batches.get(sql);
+        if (stmt == null) {
+            stmt = conn.prepareStatement(sql);
+            batches.put(sql, stmt);
+        }
+        return stmt;
+    }
+
+    void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    public void commit() throws SQLException {
+        flushBatches();
+        conn.commit();
+        committed = true;
+        for (Runnable action : afterCommit) {
+            action.run();
+        }
+    }
+
+    private void flushBatches() throws SQLException {
+        for (PreparedStatement stmt : batches.values()) {
+            stmt.executeBatch();
+            stmt.close();
+        }
+        batches.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (PreparedStatement stmt : batches.values()) {
+                stmt.close();
+            }
+            if (!committed) {
+                conn.rollback();
+            }
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            Logger.error("Failed to finish transaction: " + e.getMessage());
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                Logger.error("Failed to release connection: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.vampireraiders.database;
 
 import com.vampireraiders.game.WorldItem;
+import com.vampireraiders.game.WorldItemInfo;
 import com.vampireraiders.util.Logger;
 
 import java.sql.Connection;
@@ -8,10 +9,21 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.HashMap;
-import java.util.Map;
 
 public class WorldItemRepository {
+    private static final String CLAIM_SQL = "UPDATE world_items SET claimed_by = ?, claimed_at = NOW() WHERE id = ? AND claimed_by IS NULL";
+    private static final String INSERT_CLAIMED_SQL = "INSERT INTO world_items (item_template_id, x, y, claimed_by, claimed_at) VALUES (?, ?, ?, ?, NOW())";
+    private static final String UNCLAIM_SQL = "UPDATE world_items SET claimed_by = NULL, claimed_at = NULL, x = ?, y = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM world_items WHERE id = ?";
+
+    // Column indexes of WORLD_ITEM_INFO_MAPPER (SELECT wi.item_template_id, it.name, it.type)
+    private static final int INFO_COL_ITEM_TEMPLATE_ID = 1;
+    private static final int INFO_COL_NAME = 2;
+    private static final int INFO_COL_TYPE = 3;
+    private static final RowMapper<WorldItemInfo> WORLD_ITEM_INFO_MAPPER = rs -> new WorldItemInfo(
+            rs.getInt(INFO_COL_ITEM_TEMPLATE_ID),
+            rs.getString(INFO_COL_NAME),
+            rs.getString(INFO_COL_TYPE));
 
     public static WorldItem createWorldItem(int itemTemplateId, float x, float y) {
         String sql = "INSERT INTO world_items (item_template_id, x, y) VALUES (?, ?, ?)";
@@ -38,9 +50,8 @@ public class WorldItemRepository {
     }
 
     public static boolean claimWorldItem(long worldItemId, int playerId) {
-        String sql = "UPDATE world_items SET claimed_by = ?, claimed_at = NOW() WHERE id = ? AND claimed_by IS NULL";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(CLAIM_SQL)) {
             stmt.setInt(1, playerId);
             stmt.setLong(2, worldItemId);
             int updated = stmt.executeUpdate();
@@ -51,10 +62,63 @@ public class WorldItemRepository {
         }
     }
 
+    /**
+     * Transactional claim; executes immediately because the caller needs to know whether it won.
+     */
+    public static boolean claimWorldItem(UnitOfWork uow, long worldItemId, int playerId) throws SQLException {
+        try (PreparedStatement stmt = uow.prepare(CLAIM_SQL)) {
+            stmt.setInt(1, playerId);
+            stmt.setLong(2, worldItemId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Persist an in-memory drop directly as claimed by the player.
+     * Returns the new world_items id, or -1 on failure.
+     */
+    public static long createClaimedWorldItem(int itemTemplateId, float x, float y, int playerId) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_CLAIMED_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            return insertClaimed(stmt, itemTemplateId, x, y, playerId);
+        } catch (SQLException e) {
+            Logger.error("Failed to persist claimed world item: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    public static long createClaimedWorldItem(UnitOfWork uow, int itemTemplateId, float x, float y, int playerId) throws SQLException {
+        try (PreparedStatement stmt = uow.prepare(INSERT_CLAIMED_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            return insertClaimed(stmt, itemTemplateId, x, y, playerId);
+        }
+    }
+
+    private static long insertClaimed(PreparedStatement stmt, int itemTemplateId, float x, float y, int playerId) throws SQLException {
+        stmt.setInt(1, itemTemplateId);
+        stmt.setFloat(2, x);
+        stmt.setFloat(3, y);
+        stmt.setInt(4, playerId);
+        stmt.executeUpdate();
+
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        }
+        return -1;
+    }
+
+    public static void unclaimWorldItem(UnitOfWork uow, long worldItemId, float x, float y) throws SQLException {
+        PreparedStatement stmt = uow.batch(UNCLAIM_SQL);
+        stmt.setFloat(1, x);
+        stmt.setFloat(2, y);
+        stmt.setLong(3, worldItemId);
+        stmt.addBatch();
+    }
+
     public static boolean unclaimWorldItem(long worldItemId, float x, float y) {
-        String sql = "UPDATE world_items SET claimed_by = NULL, claimed_at = NULL, x = ?, y = ? WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UNCLAIM_SQL)) {
             stmt.setFloat(1, x);
             stmt.setFloat(2, y);
             stmt.setLong(3, worldItemId);
@@ -65,18 +129,14 @@ public class WorldItemRepository {
         }
     }
 
-    public static Map<String, Object> getWorldItemInfo(long worldItemId) {
+    public static WorldItemInfo getWorldItemInfo(long worldItemId) {
         String sql = "SELECT wi.item_template_id, it.name, it.type FROM world_items wi JOIN item_templates it ON wi.item_template_id = it.id WHERE wi.id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, worldItemId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    var map = new HashMap<String, Object>();
-                    map.put("item_template_id", rs.getInt("item_template_id"));
-                    map.put("name", rs.getString("name"));
-                    map.put("type", rs.getString("type"));
-                    return map;
+                    return WORLD_ITEM_INFO_MAPPER.map(rs);
                 }
             }
         } catch (SQLException e) {
@@ -110,11 +170,12 @@ public class WorldItemRepository {
     }
 
     public static boolean deleteWorldItem(long worldItemId) {
-        String sql = "DELETE FROM world_items WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
             stmt.setLong(1, worldItemId);
             int rows = stmt.executeUpdate();
+            // item_mods rows cascade with the world item
+            ItemModRepository.invalidateWorldItem(worldItemId);
             if (rows > 0) {
                 Logger.info("Deleted world item id=" + worldItemId);
                 return true;
@@ -124,4 +185,11 @@ public class WorldItemRepository {
         }
         return false;
     }
+
+    public static void deleteWorldItem(UnitOfWork uow, long worldItemId) throws SQLException {
+        PreparedStatement stmt = uow.batch(DELETE_SQL);
+        stmt.setLong(1, worldItemId);
+        stmt.addBatch();
+        uow.afterCommit(() -> ItemModRepository.invalidateWorldItem(worldItemId));
+    }
 }
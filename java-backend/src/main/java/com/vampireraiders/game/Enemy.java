@@ -4,20 +4,11 @@ public class Enemy {
     private static int idCounter = 1;
     
     private final int id;
-    private final int templateId;
+    private final EnemyTemplate template;  // Shared, immutable stats of this kind of enemy
     private float x;
     private float y;
     private final String mapId;
     private int health;
-    private final int maxHealth;
-    private final int damage;
-    private final int defense;
-    private final float speed;
-    private final float attackRate;  // attacks per second
-    private final float attackRange;
-    private final int experienceReward;
-    private final int level;
-    private final String templateName;
     private long spawnTime;
     private long lastAttackTime = 0;  // Track when enemy last attacked
     private long deathTime = -1;  // Track when enemy died (for respawn)
@@ -34,7 +25,11 @@ public class Enemy {
     private float originalSpawnY;
     private int targetPlayerId = -1;  // Track which player this enemy is targeting (-1 means no target)
     private int highestDamageReceived = 0;  // Track highest damage to determine aggro priority
-    private TelegraphType telegraphType;  // Telegraph attack shape and dimensions
+
+    // AI level-of-detail (see EnemyLodSystem)
+    public enum LodTier { ACTIVE, REDUCED, DORMANT }
+    private LodTier lodTier = LodTier.ACTIVE;
+    private float lodPendingDelta = 0f;  // Time skipped while in REDUCED tier
 
     public Enemy(float x, float y, EnemyTemplate template) {
         this(x, y, template, "main");
@@ -42,29 +37,18 @@ public class Enemy {
 
     public Enemy(float x, float y, EnemyTemplate template, String mapId) {
         this.id = idCounter++;
-        this.templateId = template.getId();
+        this.template = template;
         this.x = x;
         this.y = y;
         this.mapId = mapId != null ? mapId : "main";
         this.originalSpawnX = x;  // Store original position
         this.originalSpawnY = y;
         this.spawnLevel = 1;  // Default to PV1, will be set by spawner
-        this.templateName = template.getName();
-        this.level = template.getLevel();
-        this.maxHealth = template.getHp();
         this.health = template.getHp();
-        this.damage = template.getAttack();
-        this.defense = template.getDefense();
-        this.speed = template.getMoveSpeed();
-        this.attackRate = template.getAttackRate();
-        this.attackRange = template.getAttackRange();
-        this.experienceReward = template.getExperience();
         this.spawnTime = System.currentTimeMillis();
-        // Set telegraph type based on enemy name
-        this.telegraphType = getTelegraphTypeForEnemy(template.getName());
     }
 
-    public void update(float deltaTime, Player nearestPlayer, Player targetedPlayer) {
+    public void update(float deltaTime, Player nearestPlayer, Player targetedPlayer, FlowFieldCache flowFields) {
         // Prioritize the targeted player if they're alive, otherwise use nearest
         Player playerToFollow = (targetedPlayer != null && targetedPlayer.isAlive()) ? targetedPlayer : nearestPlayer;
         
@@ -83,13 +67,40 @@ public class Enemy {
         // Chase distance: 7 tiles normally, but unlimited when enemy has aggro on a target
         float chaseDistance = (targetedPlayer != null) ? Float.MAX_VALUE : (7 * 32);
         if (distance > 0 && distance <= chaseDistance) {
-            float newX = x + (dx / distance) * speed * deltaTime;
-            float newY = y + (dy / distance) * speed * deltaTime;
+            float dirX = dx / distance;
+            float dirY = dy / distance;
+
+            // Follow the player's flow field around walls; head straight once in the player's tile
+            FlowField field = flowFields != null ? flowFields.getField(playerToFollow) : null;
+            if (field != null) {
+                int gridX = (int) Math.floor(x / Tilemap.TILE_SIZE);
+                int gridY = (int) Math.floor(y / Tilemap.TILE_SIZE);
+                int dir = field.getDirection(gridX, gridY);
+                if (!field.isSource(gridX, gridY) && dir != FlowField.NO_DIRECTION) {
+                    float targetX = (gridX + FlowField.DIR_X[dir] + 0.5f) * Tilemap.TILE_SIZE;
+                    float targetY = (gridY + FlowField.DIR_Y[dir] + 0.5f) * Tilemap.TILE_SIZE;
+                    float tx = targetX - x;
+                    float ty = targetY - y;
+                    float len = (float) Math.sqrt(tx * tx + ty * ty);
+                    if (len > 0) {
+                        dirX = tx / len;
+                        dirY = ty / len;
+                    }
+                }
+            }
+
+            float speed = template.getMoveSpeed();
+            float stepX = dirX * speed * deltaTime;
+            float stepY = dirY * speed * deltaTime;
             
-            // Check if walkable for enemies (enemies can't enter safe zone)
-            if (GameWorld.isEnemyWalkable(newX, newY, mapId)) {
-                x = newX;
-                y = newY;
+            // Check if walkable for enemies (enemies can't enter safe zone); slide along walls if blocked
+            if (GameWorld.isEnemySegmentWalkable(x, y, x + stepX, y + stepY, mapId)) {
+                x += stepX;
+                y += stepY;
+            } else if (stepX != 0 && GameWorld.isEnemySegmentWalkable(x, y, x + stepX, y, mapId)) {
+                x += stepX;
+            } else if (stepY != 0 && GameWorld.isEnemySegmentWalkable(x, y, x, y + stepY, mapId)) {
+                y += stepY;
             }
         }
     }
@@ -99,9 +110,7 @@ public class Enemy {
     }
 
     public boolean canAttack() {
-        // attackRate is attacks per second, so cooldown = 1000 / attackRate milliseconds
-        long attackCooldownMs = (long) (1000.0 / attackRate);
-        return System.currentTimeMillis() - lastAttackTime >= attackCooldownMs;
+        return System.currentTimeMillis() - lastAttackTime >= template.getAttackCooldownMs();
     }
 
     public void recordAttack() {
@@ -126,7 +135,7 @@ public class Enemy {
     }
 
     public void respawn() {
-        this.health = maxHealth;
+        this.health = template.getHp();
         this.deathTime = -1;
         this.lastAttackTime = 0;
         this.spawnTime = System.currentTimeMillis();
@@ -134,6 +143,7 @@ public class Enemy {
         this.telegraphStartTime = 0;
         this.targetPlayerId = -1;
         this.highestDamageReceived = 0;
+        this.lodPendingDelta = 0f;
         // Position will be updated by SpawnerSystem using setSpawnLevel
     }
 
@@ -162,24 +172,25 @@ public class Enemy {
     }
 
     public int getRewardXP() {
-        return experienceReward;
+        return template.getExperience();
     }
 
     // Getters
     public int getId() { return id; }
-    public int getTemplateId() { return templateId; }
+    public int getTemplateId() { return template.getId(); }
+    public EnemyTemplate getTemplate() { return template; }
     public float getX() { return x; }
     public float getY() { return y; }
     public int getHealth() { return health; }
-    public int getMaxHealth() { return maxHealth; }
-    public int getDamage() { return damage; }
-    public int getDefense() { return defense; }
-    public float getSpeed() { return speed; }
-    public float getAttackRate() { return attackRate; }
-    public float getAttackRange() { return attackRange; }
-    public int getExperienceReward() { return experienceReward; }
-    public int getLevel() { return level; }
-    public String getTemplateName() { return templateName; }
+    public int getMaxHealth() { return template.getHp(); }
+    public int getDamage() { return template.getAttack(); }
+    public int getDefense() { return template.getDefense(); }
+    public float getSpeed() { return template.getMoveSpeed(); }
+    public float getAttackRate() { return template.getAttackRate(); }
+    public float getAttackRange() { return template.getAttackRange(); }
+    public int getExperienceReward() { return template.getExperience(); }
+    public int getLevel() { return template.getLevel(); }
+    public String getTemplateName() { return template.getName(); }
     public long getSpawnTime() { return spawnTime; }
     public String getMapId() { return mapId; }
 
@@ -204,19 +215,16 @@ public class Enemy {
     }
     
     public boolean isTelegraphExpired() {
-        long telegraphDurationMs = getTelegraphDurationMs();
         return attackState == AttackState.TELEGRAPHING && 
-               (System.currentTimeMillis() - telegraphStartTime >= telegraphDurationMs);
+               (System.currentTimeMillis() - telegraphStartTime >= template.getTelegraphDurationMs());
     }
     
     /**
-     * Calculate telegraph duration based on attack rate
-     * Faster attacks get shorter telegraph times
-     * attackRate = attacks per second
-     * telegraph_duration = 1000ms / attackRate
+     * Telegraph duration: 1000ms / attackRate, so faster attacks get shorter telegraph times
+     * (precomputed on the template)
      */
     public long getTelegraphDurationMs() {
-        return Math.round(1000.0 / attackRate);
+        return template.getTelegraphDurationMs();
     }
     
     public void resolveTelegraph() {
@@ -243,32 +251,22 @@ public class Enemy {
         this.targetPlayerId = -1;
         this.highestDamageReceived = 0;
     }
-    
-    /**
-     * Get telegraph type based on enemy name
-     */
-    private TelegraphType getTelegraphTypeForEnemy(String enemyName) {
-        switch (enemyName) {
-            case "Spider":
-                return TelegraphType.CIRCLE;
-            case "Worm":
-                return TelegraphType.RECTANGLE_36_48;
-            case "Wild Dog":
-                return TelegraphType.RECTANGLE_48_72;
-            case "Hound":
-                return TelegraphType.RECTANGLE_72_72;
-            case "Elite Wild Dog":
-                return TelegraphType.RECTANGLE_48_96;
-            case "Giant":
-                return TelegraphType.RECTANGLE_96_96;
-            case "Skeleton":
-                return TelegraphType.RECTANGLE_20_120;
-            default:
-                return TelegraphType.RECTANGLE_96_96;  // Default fallback
-        }
+
+    // AI level-of-detail
+    public LodTier getLodTier() { return lodTier; }
+    public void setLodTier(LodTier lodTier) { this.lodTier = lodTier; }
+
+    public void accumulateLodDelta(float deltaTime) {
+        lodPendingDelta += deltaTime;
+    }
+
+    public float consumeLodDelta() {
+        float pending = lodPendingDelta;
+        lodPendingDelta = 0f;
+        return pending;
     }
     
     public TelegraphType getTelegraphType() {
-        return telegraphType;
+        return template.getTelegraphType();
     }
 }
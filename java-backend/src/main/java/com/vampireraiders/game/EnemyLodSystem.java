@@ -0,0 +1,113 @@
+package com.vampireraiders.game;
+
+import com.vampireraiders.config.ServerConfig;
+
+import java.util.Collection;
+
+/**
+ * AI level-of-detail for enemies.
+ *
+ * ACTIVE   - a player is close (or the enemy has aggro / is mid-attack): full update every tick.
+ * REDUCED  - a player is within the awareness radius: updated every N ticks with the accumulated delta.
+ * DORMANT  - no player within the awareness radius: no movement, overlap or collision checks.
+ *            Dormant enemies only re-check the player index on a staggered cadence to wake up.
+ */
+public class EnemyLodSystem {
+    private final PlayerSpatialIndex playerIndex;
+    private final float activeRadius;
+    private final float dormantRadius;
+    private final int reducedTickInterval;
+    private final int dormantCheckInterval;
+    private long tick = 0;
+
+    // Metrics (written by the game loop, read by status/diagnostics)
+    private volatile int activeCount = 0;
+    private volatile int reducedCount = 0;
+    private volatile int dormantCount = 0;
+    private int activeTally;
+    private int reducedTally;
+    private int dormantTally;
+
+    public EnemyLodSystem() {
+        ServerConfig config = ServerConfig.getInstance();
+        this.activeRadius = config.getAiLodActiveRadiusTiles() * Tilemap.TILE_SIZE;
+        this.dormantRadius = Math.max(activeRadius, config.getAiLodDormantRadiusTiles() * Tilemap.TILE_SIZE);
+        this.reducedTickInterval = Math.max(1, config.getAiLodReducedTickInterval());
+        this.dormantCheckInterval = Math.max(1, config.getAiLodDormantCheckInterval());
+        this.playerIndex = new PlayerSpatialIndex(8 * Tilemap.TILE_SIZE);
+    }
+
+    /**
+     * Rebuild the player index and publish last tick's tier counts.
+     * Must be called once per tick before any enemy is classified.
+     */
+    public void beginTick(Collection<Player> players) {
+        activeCount = activeTally;
+        reducedCount = reducedTally;
+        dormantCount = dormantTally;
+        activeTally = 0;
+        reducedTally = 0;
+        dormantTally = 0;
+        tick++;
+        playerIndex.rebuild(players);
+    }
+
+    /**
+     * Classify the enemy into an LOD tier and return the nearest player it is aware of (may be null).
+     */
+    public Player classify(Enemy enemy, Player targetedPlayer) {
+        boolean dormant = enemy.getLodTier() == Enemy.LodTier.DORMANT;
+        if (dormant && !isDue(enemy, dormantCheckInterval) && targetedPlayer == null) {
+            dormantTally++;
+            return null;
+        }
+
+        Player nearest = playerIndex.findNearest(enemy.getX(), enemy.getY(), enemy.getMapId(), dormantRadius);
+
+        Enemy.LodTier tier;
+        if ((targetedPlayer != null && targetedPlayer.isAlive())
+                || enemy.getAttackState() != Enemy.AttackState.IDLE) {
+            tier = Enemy.LodTier.ACTIVE;
+        } else if (nearest == null) {
+            tier = Enemy.LodTier.DORMANT;
+        } else {
+            float dx = nearest.getX() - enemy.getX();
+            float dy = nearest.getY() - enemy.getY();
+            tier = (dx * dx + dy * dy <= activeRadius * activeRadius) ? Enemy.LodTier.ACTIVE : Enemy.LodTier.REDUCED;
+        }
+
+        enemy.setLodTier(tier);
+        switch (tier) {
+            case ACTIVE: activeTally++; break;
+            case REDUCED: reducedTally++; break;
+            default: dormantTally++; break;
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the delta time the enemy should be simulated with this tick, or 0 to skip it.
+     * Reduced enemies accumulate skipped time so their movement speed is preserved.
+     */
+    public float stepDelta(Enemy enemy, float deltaTime) {
+        switch (enemy.getLodTier()) {
+            case ACTIVE:
+                return enemy.consumeLodDelta() + deltaTime;
+            case REDUCED:
+                enemy.accumulateLodDelta(deltaTime);
+                return isDue(enemy, reducedTickInterval) ? enemy.consumeLodDelta() : 0f;
+            default:
+                enemy.consumeLodDelta();
+                return 0f;
+        }
+    }
+
+    private boolean isDue(Enemy enemy, int interval) {
+        // Stagger by id so reduced/dormant enemies don't all wake on the same tick
+        return (tick + enemy.getId()) % interval == 0;
+    }
+
+    public int getActiveCount() { return activeCount; }
+    public int getReducedCount() { return reducedCount; }
+    public int getDormantCount() { return dormantCount; }
+}
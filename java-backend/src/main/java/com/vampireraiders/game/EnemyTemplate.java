@@ -1,5 +1,9 @@
 package com.vampireraiders.game;
 
+/**
+ * Immutable enemy template, shared by every Enemy spawned from it (enemies only keep their
+ * per-instance state). Derived values the AI needs each tick are computed once here.
+ */
 public class EnemyTemplate {
     private final int id;
     private final String name;
@@ -11,6 +15,9 @@ public class EnemyTemplate {
     private final float moveSpeed;
     private final float attackRange;
     private final int experience;
+    private final TelegraphType telegraphType;
+    private final long attackCooldownMs;
+    private final long telegraphDurationMs;
 
     public EnemyTemplate(int id, String name, int level, int hp, int defense, int attack, 
                         float attackRate, float moveSpeed, float attackRange, int experience) {
@@ -24,6 +31,11 @@ public class EnemyTemplate {
         this.moveSpeed = moveSpeed;
         this.attackRange = attackRange;
         this.experience = experience;
+        this.telegraphType = TelegraphType.forEnemy(name);
+        // attackRate is attacks per second, so cooldown = 1000 / attackRate milliseconds;
+        // faster attackers also get a shorter telegraph
+        this.attackCooldownMs = (long) (1000.0 / attackRate);
+        this.telegraphDurationMs = Math.round(1000.0 / attackRate);
     }
 
     public int getId() { return id; }
@@ -36,4 +48,7 @@ public class EnemyTemplate {
     public float getMoveSpeed() { return moveSpeed; }
     public float getAttackRange() { return attackRange; }
     public int getExperience() { return experience; }
+    public TelegraphType getTelegraphType() { return telegraphType; }
+    public long getAttackCooldownMs() { return attackCooldownMs; }
+    public long getTelegraphDurationMs() { return telegraphDurationMs; }
 }
@@ -0,0 +1,50 @@
+package com.vampireraiders.game;
+
+/**
+ * Immutable view of one equipped item (equipped_items slot -> inventory -> world item -> template).
+ * Shared between threads without copying.
+ */
+public final class EquippedItem {
+    private final long inventoryId;
+    private final long worldItemId;
+    private final int itemTemplateId;
+    private final String name;
+    private final String type;
+    private final int damage;
+    private final int defense;
+    private final float attackSpeed;
+    private final float attackRange;
+    private final String attackType;  // "ranged", "melee", or null
+    private final String rarity;
+    private final boolean stackable;
+
+    public EquippedItem(long inventoryId, long worldItemId, int itemTemplateId, String name, String type,
+                        int damage, int defense, float attackSpeed, float attackRange, String attackType,
+                        String rarity, boolean stackable) {
+        this.inventoryId = inventoryId;
+        this.worldItemId = worldItemId;
+        this.itemTemplateId = itemTemplateId;
+        this.name = name;
+        this.type = type;
+        this.damage = damage;
+        this.defense = defense;
+        this.attackSpeed = attackSpeed;
+        this.attackRange = attackRange;
+        this.attackType = attackType;
+        this.rarity = rarity;
+        this.stackable = stackable;
+    }
+
+    public long getInventoryId() { return inventoryId; }
+    public long getWorldItemId() { return worldItemId; }
+    public int getItemTemplateId() { return itemTemplateId; }
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public int getDamage() { return damage; }
+    public int getDefense() { return defense; }
+    public float getAttackSpeed() { return attackSpeed; }
+    public float getAttackRange() { return attackRange; }
+    public String getAttackType() { return attackType; }
+    public String getRarity() { return rarity; }
+    public boolean isStackable() { return stackable; }
+}
@@ -0,0 +1,145 @@
+package com.vampireraiders.game;
+
+import java.util.Arrays;
+
+/**
+ * BFS flow field over a tilemap, rooted at a single source tile and bounded to a square
+ * window of radius tiles around it. Every reachable enemy-walkable tile in the window stores
+ * the direction of its next step towards the source, so any number of enemies can sample it
+ * in O(1); outside the window there is no direction and enemies head straight for the player.
+ *
+ * The buffers are sized by the radius alone, so FlowFieldCache recomputes retired fields in
+ * place for a new source instead of allocating. Game loop thread only.
+ */
+public class FlowField {
+    public static final int NO_DIRECTION = -1;
+
+    // 8 neighbours: E, W, S, N, SE, SW, NE, NW
+    public static final int[] DIR_X = { 1, -1, 0, 0, 1, -1, 1, -1 };
+    public static final int[] DIR_Y = { 0, 0, 1, -1, 1, 1, -1, -1 };
+
+    private final int radius;
+    private final int size;          // window width and height (2 * radius + 1)
+    private final int[] distance;    // window row-major steps to source, -1 when unreachable
+    private final byte[] direction;  // window row-major index into DIR_X/DIR_Y, NO_DIRECTION when none
+    private Tilemap tilemap;
+    private int sourceX;
+    private int sourceY;
+    private int originX;             // tile coordinates of the window's top-left cell
+    private int originY;
+
+    public FlowField(int radius) {
+        this.radius = Math.max(1, radius);
+        this.size = 2 * this.radius + 1;
+        this.distance = new int[size * size];
+        this.direction = new byte[size * size];
+    }
+
+    /**
+     * Scratch queue length needed by compute().
+     */
+    public int getQueueCapacity() {
+        return size * size;
+    }
+
+    /**
+     * Rebuild the field for a new source by breadth-first search over enemy-walkable tiles inside
+     * the window. The source itself may be non-walkable (e.g. a player standing in the safe zone).
+     * queue is caller-owned scratch of at least getQueueCapacity() entries.
+     */
+    public void compute(Tilemap tilemap, int sourceX, int sourceY, int[] queue) {
+        this.tilemap = tilemap;
+        this.sourceX = sourceX;
+        this.sourceY = sourceY;
+        this.originX = sourceX - radius;
+        this.originY = sourceY - radius;
+        Arrays.fill(distance, -1);
+        Arrays.fill(direction, (byte) NO_DIRECTION);
+
+        if (sourceX < 0 || sourceX >= tilemap.getMapWidth() || sourceY < 0 || sourceY >= tilemap.getMapHeight()) {
+            return;
+        }
+
+        // Distances use 4-connectivity; diagonals are only chosen when picking directions
+        int head = 0;
+        int tail = 0;
+        int source = radius * size + radius;
+        distance[source] = 0;
+        queue[tail++] = source;
+
+        while (head < tail) {
+            int index = queue[head++];
+            int wx = index % size;
+            int wy = index / size;
+            int next = distance[index] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nwx = wx + DIR_X[d];
+                int nwy = wy + DIR_Y[d];
+                if (nwx < 0 || nwx >= size || nwy < 0 || nwy >= size) continue;
+                if (!tilemap.isEnemyWalkableCell(originX + nwx, originY + nwy)) continue;
+                int nIndex = nwy * size + nwx;
+                if (distance[nIndex] >= 0) continue;
+                distance[nIndex] = next;
+                queue[tail++] = nIndex;
+            }
+        }
+
+        // Precompute the best neighbour for every reachable tile
+        for (int i = 0; i < tail; i++) {
+            int index = queue[i];
+            if (index == source) continue;
+            int wx = index % size;
+            int wy = index / size;
+            int x = originX + wx;
+            int y = originY + wy;
+            int best = distance[index];
+            int bestDir = NO_DIRECTION;
+            for (int d = 0; d < 8; d++) {
+                int nwx = wx + DIR_X[d];
+                int nwy = wy + DIR_Y[d];
+                if (nwx < 0 || nwx >= size || nwy < 0 || nwy >= size) continue;
+                int nDist = distance[nwy * size + nwx];
+                if (nDist < 0 || nDist >= best) continue;
+                // Don't cut corners: both orthogonal neighbours must be walkable for a diagonal
+                if (d >= 4 && (!tilemap.isEnemyWalkableCell(x + DIR_X[d], y)
+                        || !tilemap.isEnemyWalkableCell(x, y + DIR_Y[d]))) {
+                    continue;
+                }
+                best = nDist;
+                bestDir = d;
+            }
+            direction[index] = (byte) bestDir;
+        }
+    }
+
+    public Tilemap getTilemap() { return tilemap; }
+    public int getSourceX() { return sourceX; }
+    public int getSourceY() { return sourceY; }
+
+    public boolean isSource(int gridX, int gridY) {
+        return gridX == sourceX && gridY == sourceY;
+    }
+
+    /**
+     * Steps to the source from the given tile, or -1 when unreachable / outside the window.
+     */
+    public int getDistance(int gridX, int gridY) {
+        int index = windowIndex(gridX, gridY);
+        return index < 0 ? -1 : distance[index];
+    }
+
+    /**
+     * Index into DIR_X/DIR_Y of the next step towards the source, or NO_DIRECTION.
+     */
+    public int getDirection(int gridX, int gridY) {
+        int index = windowIndex(gridX, gridY);
+        return index < 0 ? NO_DIRECTION : direction[index];
+    }
+
+    private int windowIndex(int gridX, int gridY) {
+        int wx = gridX - originX;
+        int wy = gridY - originY;
+        if (wx < 0 || wx >= size || wy < 0 || wy >= size) return -1;
+        return wy * size + wx;
+    }
+}
@@ -0,0 +1,112 @@
+package com.vampireraiders.game;
+
+import com.vampireraiders.config.ServerConfig;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Per-player flow fields shared by every enemy chasing that player.
+ * A field is only rebuilt when its player moves to a different tile (or map),
+ * and players standing on the same tile share one field.
+ *
+ * Rebuilds are bounded to ai.flow-field.radius-tiles around the player (enemies farther out
+ * are dormant unless they have aggro, and those fall back to heading straight at the player),
+ * and reuse the buffers of fields no player needs any more, so moving doesn't allocate.
+ * Only accessed from the game loop thread.
+ */
+public class FlowFieldCache {
+    private static final int MAX_SPARE_FIELDS = 8;
+
+    private final Map<Integer, FlowField> byPlayer = new HashMap<>();
+    private final ArrayDeque<FlowField> spare = new ArrayDeque<>();
+    private final int radius;
+    private final int[] queue;
+    private long rebuildCount = 0;
+
+    public FlowFieldCache() {
+        this.radius = Math.max(1, ServerConfig.getInstance().getFlowFieldRadiusTiles());
+        this.queue = new int[new FlowField(radius).getQueueCapacity()];
+    }
+
+    /**
+     * Get the flow field leading to the given player's current tile, computing it if needed.
+     */
+    public FlowField getField(Player player) {
+        Tilemap tilemap = GameWorld.getTilemap(player.getMapId());
+        if (tilemap == null) {
+            return null;
+        }
+        int gridX = (int) Math.floor(player.getX() / Tilemap.TILE_SIZE);
+        int gridY = (int) Math.floor(player.getY() / Tilemap.TILE_SIZE);
+
+        FlowField current = byPlayer.get(player.getPeerId());
+        if (matches(current, tilemap, gridX, gridY)) {
+            return current;
+        }
+
+        // Reuse a field already built for another player on the same tile
+        FlowField field = null;
+        for (FlowField other : byPlayer.values()) {
+            if (matches(other, tilemap, gridX, gridY)) {
+                field = other;
+                break;
+            }
+        }
+        if (field == null) {
+            // Recompute in place: this player's old field if nobody else shares it, else a spare one
+            if (current != null && !isSharedWithOthers(current, player.getPeerId())) {
+                field = current;
+            } else {
+                field = spare.isEmpty() ? new FlowField(radius) : spare.poll();
+            }
+            field.compute(tilemap, gridX, gridY, queue);
+            rebuildCount++;
+        } else {
+            release(current, player.getPeerId());
+        }
+        byPlayer.put(player.getPeerId(), field);
+        return field;
+    }
+
+    /**
+     * Drop fields for players that are no longer connected.
+     */
+    public void retainPlayers(Collection<Integer> peerIds) {
+        Iterator<Map.Entry<Integer, FlowField>> it = byPlayer.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, FlowField> entry = it.next();
+            if (!peerIds.contains(entry.getKey())) {
+                it.remove();
+                release(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    // Keep a field that no player uses any more for the next rebuild
+    private void release(FlowField field, int peerId) {
+        if (field != null && !isSharedWithOthers(field, peerId) && spare.size() < MAX_SPARE_FIELDS) {
+            spare.push(field);
+        }
+    }
+
+    private boolean isSharedWithOthers(FlowField field, int peerId) {
+        for (Map.Entry<Integer, FlowField> entry : byPlayer.entrySet()) {
+            if (entry.getValue() == field && entry.getKey() != peerId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(FlowField field, Tilemap tilemap, int gridX, int gridY) {
+        return field != null && field.getTilemap() == tilemap && field.isSource(gridX, gridY);
+    }
+}
@@ -54,9 +54,12 @@ public class GameLoop implements Runnable {
                 frameCount++;
 
                 if (frameCount % (tickRate * 10) == 0) {
+                    EnemyLodSystem lod = gameWorld.getEnemyLodSystem();
                     Logger.debug("Game loop running - Frame: " + frameCount + 
                                ", Players: " + gameWorld.getState().getPlayerCount() +
-                               ", Enemies: " + gameWorld.getState().getEnemyCount());
+                               ", Enemies: " + gameWorld.getState().getEnemyCount() +
+                               " (LOD active=" + lod.getActiveCount() + ", reduced=" + lod.getReducedCount() +
+                               ", dormant=" + lod.getDormantCount() + ")");
                 }
             } else {
                 // Sleep to avoid busy waiting
@@ -112,8 +112,12 @@ public class GameState {
         worldItems.add(item);
     }
 
-    public void removeWorldItem(WorldItem item) {
-        worldItems.remove(item);
+    /**
+     * Remove an item from the world. Returns false if it was already removed,
+     * which makes this the in-memory claim for concurrent pickups.
+     */
+    public boolean removeWorldItem(WorldItem item) {
+        return worldItems.remove(item);
     }
 
     public List<WorldItem> getWorldItems() {
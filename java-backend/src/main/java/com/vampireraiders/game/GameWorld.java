@@ -23,6 +23,8 @@ public class GameWorld {
 
     private final GameState state;
     private final CombatSystem combatSystem;
+    private final EnemyLodSystem enemyLodSystem;
+    private final FlowFieldCache flowFieldCache;
     private SpawnerSystem spawnerSystem;
     private StateSync stateSync;
     private long lastPlayerSaveTime = 0;
@@ -31,6 +33,7 @@ public class GameWorld {
     private static final int PORTAL_COUNT = 3;
     private static final float PORTAL_RADIUS = 32f;
     private static final long PORTAL_COOLDOWN_MS = 1000;
+    private static final Logger.Sampler BULLET_HIT_LOG = Logger.sampler(1000);
 
     private static final Map<String, Tilemap> mapInstances = new HashMap<>();
     private static final Map<String, String> mapFiles = new HashMap<>();
@@ -59,6 +62,8 @@ public class GameWorld {
 
         this.state = new GameState();
         this.combatSystem = new CombatSystem();
+        this.enemyLodSystem = new EnemyLodSystem();
+        this.flowFieldCache = new FlowFieldCache();
         this.stateSync = null;
 
         initializeDungeonPortals();
@@ -73,15 +78,20 @@ public class GameWorld {
         ));
         java.util.Collections.shuffle(dungeonFiles, random);
 
+        // Pick distinct candidates by index instead of copying the (map-sized) candidate list
         List<Tilemap.TilePosition> portalTiles = tilemap.getPortalCandidates();
         if (portalTiles.isEmpty()) {
             Logger.warn("No portal candidate tiles available for portal placement.");
             return;
         }
 
-        for (int i = 0; i < PORTAL_COUNT && !portalTiles.isEmpty(); i++) {
+        Set<Integer> usedTiles = new HashSet<>();
+        for (int i = 0; i < PORTAL_COUNT && usedTiles.size() < portalTiles.size(); i++) {
             int index = random.nextInt(portalTiles.size());
-            Tilemap.TilePosition pos = portalTiles.remove(index);
+            while (!usedTiles.add(index)) {
+                index = random.nextInt(portalTiles.size());
+            }
+            Tilemap.TilePosition pos = portalTiles.get(index);
             String dungeonFile = dungeonFiles.get(i % dungeonFiles.size());
             String mapId = dungeonFile.replace(".txt", "");
 
@@ -118,6 +128,11 @@ public class GameWorld {
             lastPlayerSaveTime = currentTime;
         }
 
+        // Freeze each player's combat stats for this tick (read by movement, attacks and CombatSystem)
+        for (Player player : state.getAllPlayers().values()) {
+            player.captureCombatStats();
+        }
+
         // Update all players
         for (Player player : state.getAllPlayers().values()) {
             if (player.isAlive()) {
@@ -130,8 +145,8 @@ public class GameWorld {
                 float newX = player.getX();
                 float newY = player.getY();
                 
-                // Check if new position is walkable
-                if (!isWalkable(newX, newY, mapId)) {
+                // Sweep the movement so fast moves can't tunnel through thin walls
+                if (!isSegmentWalkable(oldX, oldY, newX, newY, mapId)) {
                     // Revert to old position if blocked
                     player.setPosition(oldX, oldY);
                 } else {
@@ -148,7 +163,8 @@ public class GameWorld {
             if (player.isAlive() && !isInSafeZone(player.getX(), player.getY(), player.getMapId())) {
                 Enemy target = findNearestEnemyForAttack(player);
                 if (target != null && player.canAttack()) {
-                    String attackType = player.getEquippedAttackType();
+                    StatBlock stats = player.getCombatStats();
+                    String attackType = stats.getAttackType();
                     
                     if ("ranged".equals(attackType)) {
                         // Ranged attack: use bullet
@@ -157,8 +173,8 @@ public class GameWorld {
                     } else {
                         // Melee attack: use semicircle
                         // Semicircle radius is roughly based on attack range
-                        float radius = Math.min(player.getEquippedAttackRange(), 150f);
-                        long durationMs = (long) (1000f / player.getEquippedAttackSpeed());  // Duration based on attack speed
+                        float radius = Math.min(stats.getAttackRange(), 150f);
+                        long durationMs = (long) (1000f / stats.getAttackSpeed());  // Duration based on attack speed
                         
                         // Calculate direction from player to target enemy
                         float dx = target.getX() - player.getX();
@@ -174,11 +190,11 @@ public class GameWorld {
             }
         }
 
-        // Update all enemies
+        // Update all enemies (dormant/reduced tiers are skipped by the LOD system)
+        enemyLodSystem.beginTick(state.getAllPlayers().values());
+        flowFieldCache.retainPlayers(state.getAllPlayers().keySet());
         for (Enemy enemy : state.getAllEnemies()) {
             if (enemy.isAlive()) {
-                // Find nearest player
-                Player nearestPlayer = findNearestPlayer(enemy.getX(), enemy.getY(), enemy.getMapId());
                 // Get the targeted player if enemy has aggro
                 Player targetedPlayer = null;
                 if (enemy.getTargetPlayerId() >= 0) {
@@ -187,7 +203,12 @@ public class GameWorld {
                         targetedPlayer = null;
                     }
                 }
-                enemy.update(deltaTime, nearestPlayer, targetedPlayer);
+                // Find nearest player via the spatial index
+                Player nearestPlayer = enemyLodSystem.classify(enemy, targetedPlayer);
+                float enemyDelta = enemyLodSystem.stepDelta(enemy, deltaTime);
+                if (enemyDelta > 0f) {
+                    enemy.update(enemyDelta, nearestPlayer, targetedPlayer, flowFieldCache);
+                }
             }
         }
 
@@ -202,25 +223,34 @@ public class GameWorld {
         // Check bullet-enemy collisions
         for (Bullet bullet : new ArrayList<>(state.getAllBullets())) {
             for (Enemy enemy : new ArrayList<>(state.getAllEnemies())) {
+                if (enemy.getLodTier() == Enemy.LodTier.DORMANT) {
+                    continue;
+                }
                 if (!bullet.getMapId().equals(enemy.getMapId())) {
                     continue;
                 }
                 if (bullet.collidedWith(enemy)) {
                     Player shooter = state.getPlayer(bullet.getShooterId());
-                    int bulletDamage = shooter.getCachedTotalDamage();
+                    if (shooter == null) {
+                        // Shooter disconnected while the bullet was in flight
+                        state.removeBullet(bullet);
+                        break;
+                    }
+                    int bulletDamage = shooter.getCombatStats().getTotalDamage();
                     int effectiveDamage = Math.max(1, bulletDamage - enemy.getDefense());
-                    System.out.println("[COLLISION] Bullet hit enemy! Base Damage: " + bulletDamage + ", Enemy Defense: " + enemy.getDefense() + ", Effective Damage: " + effectiveDamage + ", Enemy health: " + enemy.getHealth() + ", Alive: " + enemy.isAlive());
+                    if (Logger.isDebugEnabled() && BULLET_HIT_LOG.sample()) {
+                        Logger.debug("[COLLISION] Bullet hit enemy {}: base damage {}, defense {}, effective {} (+{} similar)",
+                                enemy.getId(), bulletDamage, enemy.getDefense(), effectiveDamage, BULLET_HIT_LOG.drainSuppressed());
+                    }
                     
                     // Set/update enemy aggro - will switch if this player deals more damage
-                    if (shooter != null) {
-                        enemy.setTargetPlayer(bullet.getShooterId(), effectiveDamage);
-                    }
+                    enemy.setTargetPlayer(bullet.getShooterId(), effectiveDamage);
                     
                     combatSystem.damageEnemy(enemy, effectiveDamage, state);  // Use CombatSystem to handle damage and XP rewards
                     
-                    // Broadcast damage event for client-side visual feedback
+                    // Queue damage event for client-side visual feedback (sent with the next game_state)
                     if (stateSync != null) {
-                        stateSync.broadcastDamageEvent(enemy.getId(), "enemy", effectiveDamage, enemy.getX(), enemy.getY(), enemy.getMapId());
+                        stateSync.queueDamageEvent(enemy.getId(), "enemy", effectiveDamage, enemy.getX(), enemy.getY(), enemy.getMapId());
                     }
                     
                     state.removeBullet(bullet);
@@ -245,6 +275,9 @@ public class GameWorld {
             }
             
             for (Enemy enemy : new ArrayList<>(state.getAllEnemies())) {
+                if (enemy.getLodTier() == Enemy.LodTier.DORMANT) {
+                    continue;
+                }
                 if (!attack.getMapId().equals(enemy.getMapId())) {
                     continue;
                 }
@@ -255,7 +288,7 @@ public class GameWorld {
                 
                 if (!checkMeleeHit(attack, enemy)) continue;
                 
-                int attackDamage = attacker.getCachedTotalDamage();
+                int attackDamage = attacker.getCombatStats().getTotalDamage();
                 int effectiveDamage = Math.max(1, attackDamage - enemy.getDefense());
                 
                 // Mark enemy as hit by this attack (prevent multiple hits per swing)
@@ -266,9 +299,9 @@ public class GameWorld {
                 
                 combatSystem.damageEnemy(enemy, effectiveDamage, state);
                 
-                // Broadcast damage event for client-side visual feedback
+                // Queue damage event for client-side visual feedback (sent with the next game_state)
                 if (stateSync != null) {
-                    stateSync.broadcastDamageEvent(enemy.getId(), "enemy", effectiveDamage, enemy.getX(), enemy.getY(), enemy.getMapId());
+                    stateSync.queueDamageEvent(enemy.getId(), "enemy", effectiveDamage, enemy.getX(), enemy.getY(), enemy.getMapId());
                 }
             }
         }
@@ -289,7 +322,10 @@ public class GameWorld {
                 // Respawn at original position
                 deadEnemy.respawnAt(deadEnemy.getOriginalSpawnX(), deadEnemy.getOriginalSpawnY());
                 state.addEnemy(deadEnemy);  // Re-add to active enemies list
-                Logger.info("Enemy " + deadEnemy.getId() + " (" + deadEnemy.getTemplateName() + ") respawned at (" + deadEnemy.getX() + "," + deadEnemy.getY() + ")");
+                if (Logger.isDebugEnabled()) {
+                    Logger.debug("Enemy {} ({}) respawned at ({},{})",
+                            deadEnemy.getId(), deadEnemy.getTemplateName(), deadEnemy.getX(), deadEnemy.getY());
+                }
             } else {
                 // Not ready yet, put back in queue
                 deadEnemies.offer(deadEnemy);
@@ -298,7 +334,6 @@ public class GameWorld {
         
         for (Enemy e : enemiesToRemove) {
             state.removeEnemy(e);
-            //System.out.println("[CLEANUP] Removed dead enemy, remaining: " + state.getAllEnemies().size());
         }
         
         List<Bullet> bulletsToRemove = new ArrayList<>();
@@ -319,18 +354,23 @@ public class GameWorld {
         }
         for (WorldItem item : itemsToRemove) {
             state.removeWorldItem(item);
-            // Also delete from database
-            com.vampireraiders.database.WorldItemRepository.deleteWorldItem(item.getId());
-            Logger.debug("Removed expired world item id=" + item.getId() + " at (" + item.getX() + "," + item.getY() + ")");
+            // Transient drops never reached the database; only delete rows for persisted items
+            if (item.isPersisted()) {
+                com.vampireraiders.database.WorldItemRepository.deleteWorldItem(item.getId());
+            }
+            if (Logger.isDebugEnabled()) {
+                Logger.debug("Removed expired world item id={} at ({},{})", item.getId(), item.getX(), item.getY());
+            }
         }
     }
 
     private Enemy findNearestEnemyForAttack(Player player) {
         Enemy nearest = null;
-        float attackRange = player.getEquippedAttackRange();  // Use player's equipped weapon range
+        float attackRange = player.getCombatStats().getAttackRange();  // Use player's equipped weapon range
 
         for (Enemy enemy : state.getAllEnemies()) {
             if (!enemy.isAlive()) continue;
+            if (enemy.getLodTier() == Enemy.LodTier.DORMANT) continue;
             if (!enemy.getMapId().equals(player.getMapId())) continue;
 
             float dx = enemy.getX() - player.getX();
@@ -361,31 +401,14 @@ public class GameWorld {
         player.setPosition(x, y);
     }
 
-    private Player findNearestPlayer(float x, float y, String mapId) {
-        Player nearest = null;
-        float closestDistance = Float.MAX_VALUE;
-
-        for (Player player : state.getAllPlayers().values()) {
-            if (!player.isAlive()) continue;
-            if (!player.getMapId().equals(mapId)) continue;
-            
-            float dx = player.getX() - x;
-            float dy = player.getY() - y;
-            float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                nearest = player;
-            }
-        }
-
-        return nearest;
-    }
-
     public GameState getState() {
         return state;
     }
 
+    public EnemyLodSystem getEnemyLodSystem() {
+        return enemyLodSystem;
+    }
+
     public void start() {
         state.setRunning(true);
     }
@@ -480,6 +503,28 @@ public class GameWorld {
         return map.isWalkable(x, y);
     }
     
+    /**
+     * Check if every tile along a movement segment is walkable for players
+     */
+    public static boolean isSegmentWalkable(float x0, float y0, float x1, float y1, String mapId) {
+        Tilemap map = getTilemap(mapId);
+        if (map == null) {
+            return false;
+        }
+        return map.isSegmentWalkable(x0, y0, x1, y1);
+    }
+    
+    /**
+     * Check if every tile along a movement segment is walkable for enemies
+     */
+    public static boolean isEnemySegmentWalkable(float x0, float y0, float x1, float y1, String mapId) {
+        Tilemap map = getTilemap(mapId);
+        if (map == null) {
+            return false;
+        }
+        return map.isEnemySegmentWalkable(x0, y0, x1, y1);
+    }
+    
     /**
      * Check if position is walkable for enemies (tile-based)
      */
@@ -573,6 +618,7 @@ public class GameWorld {
 
     private void resolveEnemyOverlap() {
         List<Enemy> enemies = state.getAllEnemies();
+        enemies.removeIf(e -> e.getLodTier() == Enemy.LodTier.DORMANT);
         int count = enemies.size();
         if (count <= 1) {
             return;
@@ -0,0 +1,49 @@
+package com.vampireraiders.game;
+
+/**
+ * Immutable inventory row joined with its world item and item template.
+ */
+public final class InventoryEntry {
+    private final long inventoryId;
+    private final long worldItemId;
+    private final int itemTemplateId;
+    private final String name;
+    private final String type;
+    private final int damage;
+    private final int defense;
+    private final String rarity;
+    private final boolean stackable;
+    private final int quantity;
+    private final int slotX;
+    private final int slotY;
+
+    public InventoryEntry(long inventoryId, long worldItemId, int itemTemplateId, String name, String type,
+                          int damage, int defense, String rarity, boolean stackable,
+                          int quantity, int slotX, int slotY) {
+        this.inventoryId = inventoryId;
+        this.worldItemId = worldItemId;
+        this.itemTemplateId = itemTemplateId;
+        this.name = name;
+        this.type = type;
+        this.damage = damage;
+        this.defense = defense;
+        this.rarity = rarity;
+        this.stackable = stackable;
+        this.quantity = quantity;
+        this.slotX = slotX;
+        this.slotY = slotY;
+    }
+
+    public long getInventoryId() { return inventoryId; }
+    public long getWorldItemId() { return worldItemId; }
+    public int getItemTemplateId() { return itemTemplateId; }
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public int getDamage() { return damage; }
+    public int getDefense() { return defense; }
+    public String getRarity() { return rarity; }
+    public boolean isStackable() { return stackable; }
+    public int getQuantity() { return quantity; }
+    public int getSlotX() { return slotX; }
+    public int getSlotY() { return slotY; }
+}
@@ -0,0 +1,20 @@
+package com.vampireraiders.game;
+
+/**
+ * One mod rolled on a world item (item_mods joined with mod_templates).
+ */
+public final class ItemModValue {
+    private final String modType;  // LEVEL, LIFE, DEFENSE, DAMAGE, SKILL, RATE, RANGE
+    private final int modValue;
+    private final String modName;
+
+    public ItemModValue(String modType, int modValue, String modName) {
+        this.modType = modType;
+        this.modValue = modValue;
+        this.modName = modName;
+    }
+
+    public String getModType() { return modType; }
+    public int getModValue() { return modValue; }
+    public String getModName() { return modName; }
+}
@@ -0,0 +1,119 @@
+package com.vampireraiders.game;
+
+import com.vampireraiders.util.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Immutable drop table of one enemy template, sampled in O(1) with Walker's alias method.
+ *
+ * Drop rates are percentages rolled against one 0-100 roll, like the old cumulative walk:
+ * rates past a cumulative 100% are cut off and whatever is left below 100% becomes a
+ * "no drop" outcome, so the distribution is the same as before.
+ */
+public final class LootTable {
+    private static final double TOTAL_PERCENT = 100.0;
+
+    private final ItemTemplate[] outcomes;  // null entry = no drop
+    private final double[] probability;
+    private final int[] alias;
+
+    private LootTable(ItemTemplate[] outcomes, double[] probability, int[] alias) {
+        this.outcomes = outcomes;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * Build the table for one enemy template; returns null if nothing can drop.
+     * Drops whose item template is unknown are logged and folded into "no drop".
+     */
+    static LootTable build(int enemyTemplateId, List<EnemyItem> drops, ItemTemplate[] itemsById) {
+        List<ItemTemplate> items = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        double cumulative = 0.0;
+        for (EnemyItem drop : drops) {
+            double weight = Math.min(cumulative + Math.max(0.0, drop.getDropRate()), TOTAL_PERCENT) - cumulative;
+            cumulative += weight;
+            int itemId = drop.getItemTemplateId();
+            ItemTemplate item = itemId >= 0 && itemId < itemsById.length ? itemsById[itemId] : null;
+            if (item == null) {
+                Logger.warn("Enemy template " + enemyTemplateId + " drops unknown item template " + itemId);
+                continue;
+            }
+            if (weight > 0) {
+                items.add(item);
+                weights.add(weight);
+            }
+        }
+        if (items.isEmpty()) {
+            return null;
+        }
+        double dropTotal = 0.0;
+        for (double weight : weights) {
+            dropTotal += weight;
+        }
+        if (dropTotal < TOTAL_PERCENT) {
+            items.add(null);
+            weights.add(TOTAL_PERCENT - dropTotal);
+        }
+
+        int n = items.size();
+        ItemTemplate[] outcomes = items.toArray(new ItemTemplate[0]);
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+
+        // Vose's variant: scale weights to mean 1, then pair each under-full column with an over-full one
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights.get(i) * n / TOTAL_PERCENT;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Leftovers are full columns (anything else is floating point residue)
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        return new LootTable(outcomes, probability, alias);
+    }
+
+    /**
+     * Roll once; returns the dropped item template, or null for no drop.
+     */
+    public ItemTemplate roll(Random random) {
+        int column = random.nextInt(outcomes.length);
+        return random.nextDouble() < probability[column] ? outcomes[column] : outcomes[alias[column]];
+    }
+
+    public int getOutcomeCount() {
+        return outcomes.length;
+    }
+}
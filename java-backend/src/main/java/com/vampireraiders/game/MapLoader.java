@@ -1,18 +1,39 @@
 package com.vampireraiders.game;
 
+import com.vampireraiders.config.ServerConfig;
 import com.vampireraiders.util.Logger;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
 
 /**
- * Loads map data from text files
+ * Loads map data from text files.
+ *
+ * The .txt source is parsed with a single streaming pass over its bytes. A compiled
+ * binary copy is kept in the map cache directory and memory-mapped on later loads,
+ * as long as its checksum still matches the .txt source.
+ *
+ * Binary format (big-endian): magic, version, width, height, CRC32 of the source, CRC32 of
+ * the TileType codes in ordinal order, then width * height tile ordinals in row-major order.
+ * The second checksum makes a reordered or extended TileType invalidate every cached map.
  */
 public class MapLoader {
-    
+    private static final int CACHE_MAGIC = 0x56524D50; // "VRMP"
+    private static final int CACHE_VERSION = 2;
+    private static final int CACHE_HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 8;
+    private static final long TILE_TYPES_CHECKSUM = tileTypesChecksum();
+
     /**
      * Load a map from a resource file
      * @param filename Name of the file in resources folder (e.g., "small-map.txt")
@@ -20,80 +41,204 @@ public class MapLoader {
      */
     public static Tilemap loadMap(String filename) {
         try {
-            InputStream stream = MapLoader.class.getClassLoader().getResourceAsStream(filename);
-            if (stream == null) {
-                throw new RuntimeException("Map file not found: " + filename);
-            }
-            
-            BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-            List<String> lines = new ArrayList<>();
-            String line;
-            
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    lines.add(line);
+            long start = System.nanoTime();
+            byte[] source;
+            try (InputStream stream = MapLoader.class.getClassLoader().getResourceAsStream(filename)) {
+                if (stream == null) {
+                    throw new RuntimeException("Map file not found: " + filename);
                 }
+                source = stream.readAllBytes();
             }
-            reader.close();
-            
-            if (lines.isEmpty()) {
-                throw new RuntimeException("Map file is empty: " + filename);
+
+            CRC32 crc = new CRC32();
+            crc.update(source);
+            long checksum = crc.getValue();
+
+            ServerConfig config = ServerConfig.getInstance();
+            Path cacheFile = config.isMapCacheEnabled()
+                    ? Paths.get(config.getMapCacheDir(), filename.replace(".txt", "") + ".bin")
+                    : null;
+
+            Tilemap tilemap = cacheFile != null ? loadCached(cacheFile, checksum, filename) : null;
+            String origin = "binary cache";
+            if (tilemap == null) {
+                ParsedMap parsed = parseMap(source, filename);
+                if (cacheFile != null) {
+                    writeCache(cacheFile, parsed, checksum);
+                }
+                tilemap = parsed.toTilemap();
+                origin = "source";
             }
-            
-            return parseMap(lines, filename);
-            
+
+            Logger.info("Loaded map " + filename + " - Size: " + tilemap.getMapWidth() + "x" + tilemap.getMapHeight()
+                    + " from " + origin + " in " + ((System.nanoTime() - start) / 1_000_000) + "ms");
+            return tilemap;
+
         } catch (Exception e) {
             Logger.error("Failed to load map file " + filename + ": " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Failed to load map: " + filename, e);
         }
     }
-    
-    private static Tilemap parseMap(List<String> lines, String filename) {
-        int height = lines.size();
+
+    /**
+     * Parse "[BLK][PVE]..." rows in a single pass over the raw bytes.
+     */
+    private static ParsedMap parseMap(byte[] source, String filename) {
+        byte[] ordinals = new byte[Math.max(16, source.length / 5)];
+        int count = 0;
         int width = 0;
-        
-        // Parse tiles and determine width
-        List<List<TileType>> rows = new ArrayList<>();
-        
-        for (String line : lines) {
-            List<TileType> row = new ArrayList<>();
-            
-            // Split by ][, removing leading [ and trailing ]
-            String cleaned = line.replaceAll("^\\[|\\]$", "");
-            String[] tiles = cleaned.split("\\]\\[");
-            
-            for (String tileCode : tiles) {
-                try {
-                    TileType type = TileType.fromCode(tileCode);
-                    row.add(type);
-                } catch (IllegalArgumentException e) {
-                    Logger.error("Unknown tile code '" + tileCode + "' in " + filename);
-                    row.add(TileType.BLOCKED); // Default to blocked
+        int height = 0;
+        int rowCount = 0;
+
+        int i = 0;
+        int length = source.length;
+        while (i <= length) {
+            int c = i < length ? source[i] : '\n';
+            if (c == '\n') {
+                // End of row (blank lines are skipped)
+                if (rowCount > 0) {
+                    if (width == 0) {
+                        width = rowCount;
+                    } else if (rowCount != width) {
+                        throw new RuntimeException("Inconsistent row width in map file: " + filename);
+                    }
+                    height++;
+                    rowCount = 0;
                 }
+                i++;
+            } else if (c == '[') {
+                int end = i + 1;
+                while (end < length && source[end] != ']' && source[end] != '\n') {
+                    end++;
+                }
+                if (end >= length || source[end] != ']') {
+                    throw new RuntimeException("Unterminated tile code in map file: " + filename);
+                }
+                TileType type = end - i == 4 ? TileType.fromCodeChars(source[i + 1], source[i + 2], source[i + 3]) : null;
+                if (type == null) {
+                    Logger.error("Unknown tile code '" + new String(source, i + 1, end - i - 1) + "' in " + filename);
+                    type = TileType.BLOCKED; // Default to blocked
+                }
+                if (count == ordinals.length) {
+                    ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+                }
+                ordinals[count++] = (byte) type.ordinal();
+                rowCount++;
+                i = end + 1;
+            } else {
+                // Whitespace / carriage returns between tiles
+                i++;
+            }
+        }
+
+        if (height == 0) {
+            throw new RuntimeException("Map file is empty: " + filename);
+        }
+        return new ParsedMap(width, height, Arrays.copyOf(ordinals, count));
+    }
+
+    /**
+     * Memory-map a compiled map, returning null when it is missing, stale or corrupt.
+     */
+    private static Tilemap loadCached(Path cacheFile, long checksum, String filename) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CACHE_HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != CACHE_MAGIC || buffer.getInt() != CACHE_VERSION) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            long cachedChecksum = buffer.getLong();
+            long cachedTileTypes = buffer.getLong();
+            if (cachedChecksum != checksum || cachedTileTypes != TILE_TYPES_CHECKSUM) {
+                Logger.info("Map cache for " + filename + " is stale, rebuilding");
+                return null;
             }
-            
-            if (width == 0) {
-                width = row.size();
-            } else if (row.size() != width) {
-                throw new RuntimeException("Inconsistent row width in map file: " + filename);
+            if (width <= 0 || height <= 0 || size != CACHE_HEADER_BYTES + (long) width * height) {
+                return null;
+            }
+
+            byte[] ordinals = new byte[width * height];
+            buffer.get(ordinals);
+            int typeCount = TileType.values().length;
+            for (byte ordinal : ordinals) {
+                if (ordinal < 0 || ordinal >= typeCount) {
+                    return null;
+                }
             }
-            
-            rows.add(row);
+            return new ParsedMap(width, height, ordinals).toTilemap();
+        } catch (IOException e) {
+            Logger.warn("Failed to read map cache " + cacheFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Identifies the ordinal -> tile code mapping the cached ordinals were written with
+    private static long tileTypesChecksum() {
+        CRC32 crc = new CRC32();
+        for (TileType type : TileType.values()) {
+            crc.update(type.getCode().getBytes(StandardCharsets.US_ASCII));
+            crc.update(',');
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Write the compiled map next to the others; failures only cost the next startup a re-parse.
+     */
+    private static void writeCache(Path cacheFile, ParsedMap parsed, long checksum) {
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            ByteBuffer buffer = ByteBuffer.allocate(CACHE_HEADER_BYTES + parsed.ordinals.length);
+            buffer.putInt(CACHE_MAGIC);
+            buffer.putInt(CACHE_VERSION);
+            buffer.putInt(parsed.width);
+            buffer.putInt(parsed.height);
+            buffer.putLong(checksum);
+            buffer.putLong(TILE_TYPES_CHECKSUM);
+            buffer.put(parsed.ordinals);
+
+            // Write to a temp file and move into place so readers never see a partial file
+            Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.warn("Failed to write map cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Row-major tile ordinals produced by either the text parser or the binary cache
+     */
+    private static class ParsedMap {
+        final int width;
+        final int height;
+        final byte[] ordinals;
+
+        ParsedMap(int width, int height, byte[] ordinals) {
+            this.width = width;
+            this.height = height;
+            this.ordinals = ordinals;
         }
-        
-        // Convert to 2D array
-        TileType[][] tiles = new TileType[width][height];
-        for (int y = 0; y < height; y++) {
-            List<TileType> row = rows.get(y);
-            for (int x = 0; x < width; x++) {
-                tiles[x][y] = row.get(x);
+
+        Tilemap toTilemap() {
+            TileType[] types = TileType.values();
+            TileType[][] tiles = new TileType[width][height];
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                for (int x = 0; x < width; x++) {
+                    tiles[x][y] = types[ordinals[row + x]];
+                }
             }
+            return new Tilemap(tiles, width, height);
         }
-        
-        Logger.info("Loaded map " + filename + " - Size: " + width + "x" + height);
-        
-        return new Tilemap(tiles, width, height);
     }
 }
@@ -0,0 +1,23 @@
+package com.vampireraiders.game;
+
+/**
+ * A row of mod_templates.
+ */
+public final class ModTemplate {
+    private final int id;
+    private final String modType;
+    private final int modValue;
+    private final String modName;
+
+    public ModTemplate(int id, String modType, int modValue, String modName) {
+        this.id = id;
+        this.modType = modType;
+        this.modValue = modValue;
+        this.modName = modName;
+    }
+
+    public int getId() { return id; }
+    public String getModType() { return modType; }
+    public int getModValue() { return modValue; }
+    public String getModName() { return modName; }
+}
@@ -3,10 +3,18 @@ package com.vampireraiders.game;
 import com.vampireraiders.database.EquippedItemRepository;
 import com.vampireraiders.database.ItemModRepository;
 import com.vampireraiders.database.PlayerRepository;
+import com.vampireraiders.util.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Player {
+    private static final Logger.Sampler DAMAGE_LOG = Logger.sampler(1000);
+    // Two NaNs; real inputs are always finite
+    private static final long NO_INPUT = 0x7FC000017FC00001L;
+
     private final int peerId;
     private int databaseId = -1;  // Loaded from database later
     private final String username;
@@ -18,6 +26,8 @@ public class Player {
     private int level;
     private float velocityX;
     private float velocityY;
+    // Latest movement input from the network threads (both floats' bits packed), taken by update()
+    private final AtomicLong pendingInput = new AtomicLong(NO_INPUT);
     private float moveSpeed = 100f;  // Default from database
     private String mapId = "main";
     private long lastUpdateTime;
@@ -25,22 +35,13 @@ public class Player {
     private final long baseAttackCooldownMs = 1000;  // Base: 1 attack per second
     private long lastPortalTime = 0;
 
-    // Cached equipped weapon stats (to avoid DB queries every attack)
-    private float cachedAttackSpeed = 0.5f;
-    private float cachedAttackRange = 50.0f;
-    private int cachedWeaponDamage = 0;
-    private int cachedWeaponLevelMod = 0;
-    private String cachedAttackType = null;  // "ranged", "melee", or null
-    private int cachedTotalDamage = 0;
-
-    // Cached equipped armor stats (to avoid DB queries every defense calculation)
-    private int cachedArmorDefense = 0;
-    private int cachedArmorLevelMod = 0;
-    private int cachedGlovesDefense = 0;
-    private int cachedGlovesLevelMod = 0;
-    private int cachedBootsDefense = 0;
-    private int cachedBootsLevelMod = 0;
-    private int cachedTotalDefense = 0;
+    // Compiled equipment stats, swapped as a whole on equip/unequip (no DB access on reads)
+    private volatile StatBlock stats = StatBlock.EMPTY;
+    // Guards level changes and stats publishes, so equipment compiled on the inventory writer
+    // can't replace stats with a level the game loop has already moved past
+    private final Object statsLock = new Object();
+    // Snapshot of stats taken at the start of each game tick; only read on the game loop thread
+    private StatBlock combatStats = StatBlock.EMPTY;
 
     public Player(int peerId, String username, float x, float y) {
         this.peerId = peerId;
@@ -57,24 +58,49 @@ public class Player {
     }
 
     public void update(float deltaTime) {
+        // Unequipping a LIFE item can leave health above the new maximum
+        if (health > getMaxHealth()) {
+            health = getMaxHealth();
+        }
+        long input = pendingInput.getAndSet(NO_INPUT);
+        if (input != NO_INPUT) {
+            velocityX = Float.intBitsToFloat((int) (input >>> 32));
+            velocityY = Float.intBitsToFloat((int) input);
+        }
         x += velocityX * moveSpeed * deltaTime;
         y += velocityY * moveSpeed * deltaTime;
         lastUpdateTime = System.currentTimeMillis();
     }
 
+    /**
+     * Set the movement direction from the game loop (spawn, portal, respawn); discards any input
+     * still waiting to be applied.
+     */
     public void setInputDirection(float velX, float velY) {
+        pendingInput.set(NO_INPUT);
         this.velocityX = velX;
         this.velocityY = velY;
     }
 
+    /**
+     * Hand a movement input over from a network thread. Lock-free; only the latest input before a
+     * tick counts, and it takes effect at the start of this player's next update().
+     */
+    public void offerInput(float dirX, float dirY) {
+        pendingInput.set((long) Float.floatToRawIntBits(dirX) << 32 | (Float.floatToRawIntBits(dirY) & 0xFFFFFFFFL));
+    }
+
     public void takeDamage(int damage) {
         boolean wasAlive = this.health > 0;
         this.health = Math.max(0, health - damage);
-        System.out.println("Player " + username + " took " + damage + " dmg, health=" + health + "/" + maxHealth);
+        if (Logger.isDebugEnabled() && DAMAGE_LOG.sample()) {
+            Logger.debug("Player {} took {} dmg, health={}/{} (+{} similar)",
+                    username, damage, health, getMaxHealth(), DAMAGE_LOG.drainSuppressed());
+        }
 
         // Save immediately on death to preserve final state
         if (wasAlive && this.health == 0) {
-            System.out.println("Player " + username + " died! Saving state...");
+            Logger.info("Player {} died! Saving state...", username);
             PlayerRepository.savePlayer(this);
         }
     }
@@ -84,18 +110,23 @@ public class Player {
     public void gainXP(int amount) {
         int oldXP = this.xp;
         this.xp += amount;
-        System.out.println("Player " + username + " gained " + amount + " XP: " + oldXP + " -> " + xp);
+        if (Logger.isDebugEnabled()) {
+            Logger.debug("Player {} gained {} XP: {} -> {}", username, amount, oldXP, xp);
+        }
         checkLevelUp();
     }
 
     private void checkLevelUp() {
         int xpRequired = (int) (120.0 * Math.pow(level, 1.5));
         if (xp >= xpRequired) {
-            level++;
+            synchronized (statsLock) {
+                level++;
+                stats = stats.withLevel(level);
+            }
             maxHealth += 20;
-            health = maxHealth;
+            health = getMaxHealth();
             xp = 0;
-            System.out.println("Player " + username + " leveled up to level " + level + "! Max health: " + maxHealth);
+            Logger.info("Player {} leveled up to level {}! Max health: {}", username, level, getMaxHealth());
 
             // Save immediately on level up to prevent progress loss
             PlayerRepository.savePlayer(this);
@@ -127,7 +158,17 @@ public class Player {
         return health;
     }
 
+    /**
+     * Max health including LIFE mods of equipped items
+     */
     public int getMaxHealth() {
+        return maxHealth + stats.getBonusLife();
+    }
+
+    /**
+     * Max health from levels only (the persisted value)
+     */
+    public int getBaseMaxHealth() {
         return maxHealth;
     }
 
@@ -177,7 +218,10 @@ public class Player {
     }
 
     public void setLevel(int l) {
-        this.level = l;
+        synchronized (statsLock) {
+            this.level = l;
+            stats = stats.withLevel(l);
+        }
     }
 
     public void setXP(int x) {
@@ -214,241 +258,82 @@ public class Player {
 
     public long getAttackCooldown() {
         // Get equipped weapon's attack speed
-        float attackSpeed = getEquippedAttackSpeed();
+        float attackSpeed = combatStats.getAttackSpeed();
         // Cooldown = base / attack_speed (higher attack_speed = faster attacks)
         return (long) (baseAttackCooldownMs / attackSpeed);
     }
 
-    public float getEquippedAttackSpeed() {
-        return cachedAttackSpeed;
-    }
-
-    public float getEquippedAttackRange() {
-        return cachedAttackRange;
-    }
-
-    public int getCachedWeaponDamage() {
-        return cachedWeaponDamage;
-    }
-
-    public int getCachedWeaponLevelMod() {
-        return cachedWeaponLevelMod;
-    }
-
-    public int getCachedTotalDamage() {
-        return cachedTotalDamage;
-    }
-
-    public int getCachedArmorDefense() {
-        return cachedArmorDefense;
+    /**
+     * Current compiled equipment stats; read once and use the snapshot for a whole calculation.
+     */
+    public StatBlock getStats() {
+        return stats;
     }
 
-    public int getCachedArmorLevelMod() {
-        return cachedArmorLevelMod;
+    /**
+     * Freeze the current stats for this tick so all combat math in the tick sees the same values,
+     * even if an equip lands on the inventory writer thread mid-tick.
+     */
+    public void captureCombatStats() {
+        combatStats = stats;
     }
 
-    public int getCachedGlovesDefense() {
-        return cachedGlovesDefense;
+    /**
+     * Stats captured at the start of the current tick (game loop thread only).
+     */
+    public StatBlock getCombatStats() {
+        return combatStats;
     }
 
-    public int getCachedGlovesLevelMod() {
-        return cachedGlovesLevelMod;
+    public float getEquippedAttackSpeed() {
+        return stats.getAttackSpeed();
     }
 
-    public int getCachedBootsDefense() {
-        return cachedBootsDefense;
+    public float getEquippedAttackRange() {
+        return stats.getAttackRange();
     }
 
-    public int getCachedBootsLevelMod() {
-        return cachedBootsLevelMod;
+    public int getCachedTotalDamage() {
+        return stats.getTotalDamage();
     }
 
     public int getCachedTotalDefense() {
-        return cachedTotalDefense;
+        return stats.getTotalDefense();
     }
 
     public String getEquippedAttackType() {
-        return cachedAttackType;
+        return stats.getAttackType();
     }
 
     /**
-     * Refreshes the cached equipped weapon stats from the database.
-     * Should be called whenever a player equips/unequips items.
+     * Drop all equipment bonuses at once (death drop), without waiting for the database.
      */
-    public void refreshEquippedItemsCache() {
-        if (databaseId <= 0) {
-            return; // No database ID yet, can't load
-        }
-
-        // Load weapon stats
-        Map<String, Object> weapon = EquippedItemRepository.getEquippedWeapon(databaseId);
-        if (weapon != null) {
-            // Extract weapon stats
-            if (weapon.containsKey("attack_speed")) {
-                cachedAttackSpeed = (Float) weapon.get("attack_speed");
-            } else {
-                cachedAttackSpeed = 1.0f;
-            }
-
-            if (weapon.containsKey("attack_range")) {
-                cachedAttackRange = (Float) weapon.get("attack_range");
-            } else {
-                cachedAttackRange = 200.0f;
-            }
-
-            if (weapon.containsKey("damage")) {
-                cachedWeaponDamage = ((Number) weapon.get("damage")).intValue();
-            } else {
-                cachedWeaponDamage = 0;
-            }
-
-            // Cache mods that affect combat.
-            // Mods are stored per world item instance (world_item_id).
-            if (weapon.containsKey("world_item_id") && weapon.get("world_item_id") instanceof Number) {
-                long worldItemId = ((Number) weapon.get("world_item_id")).longValue();
-                cachedWeaponLevelMod = ItemModRepository.getModValueForWorldItem(worldItemId, "LEVEL");
-            } else {
-                cachedWeaponLevelMod = 0;
-            }
-
-            if (weapon.containsKey("attack_type")) {
-                cachedAttackType = (String) weapon.get("attack_type");
-            } else {
-                cachedAttackType = null;
-            }
-        } else {
-            // No weapon equipped, use defaults
-            cachedAttackSpeed = 1.0f;
-            cachedAttackRange = 50.0f;
-            cachedWeaponDamage = 0;
-            cachedWeaponLevelMod = 0;
-            cachedAttackType = null;
-        }
-
-        // Load armor stats
-        Map<String, Object> armor = EquippedItemRepository.getEquippedArmor(databaseId);
-        if (armor != null) {
-            // Extract armor stats
-            if (armor.containsKey("defense")) {
-                cachedArmorDefense = ((Number) armor.get("defense")).intValue();
-            } else {
-                cachedArmorDefense = 0;
-            }
-
-            // Cache armor LEVEL mods
-            if (armor.containsKey("world_item_id") && armor.get("world_item_id") instanceof Number) {
-                long worldItemId = ((Number) armor.get("world_item_id")).longValue();
-                cachedArmorLevelMod = ItemModRepository.getModValueForWorldItem(worldItemId, "LEVEL");
-            } else {
-                cachedArmorLevelMod = 0;
-            }
-        } else {
-            // No armor equipped, use defaults
-            cachedArmorDefense = 0;
-            cachedArmorLevelMod = 0;
-        }
-
-        // Load gloves stats
-        Map<String, Object> gloves = EquippedItemRepository.getEquippedGloves(databaseId);
-        if (gloves != null) {
-            // Extract gloves stats
-            if (gloves.containsKey("defense")) {
-                cachedGlovesDefense = ((Number) gloves.get("defense")).intValue();
-            } else {
-                cachedGlovesDefense = 0;
-            }
-
-            // Cache gloves LEVEL mods
-            if (gloves.containsKey("world_item_id") && gloves.get("world_item_id") instanceof Number) {
-                long worldItemId = ((Number) gloves.get("world_item_id")).longValue();
-                cachedGlovesLevelMod = ItemModRepository.getModValueForWorldItem(worldItemId, "LEVEL");
-            } else {
-                cachedGlovesLevelMod = 0;
-            }
-        } else {
-            // No gloves equipped, use defaults
-            cachedGlovesDefense = 0;
-            cachedGlovesLevelMod = 0;
+    public void clearEquipmentStats() {
+        synchronized (statsLock) {
+            stats = StatBlock.EMPTY.withLevel(level);
         }
-
-        // Load boots stats
-        Map<String, Object> boots = EquippedItemRepository.getEquippedBoots(databaseId);
-        if (boots != null) {
-            // Extract boots stats
-            if (boots.containsKey("defense")) {
-                cachedBootsDefense = ((Number) boots.get("defense")).intValue();
-            } else {
-                cachedBootsDefense = 0;
-            }
-
-            // Cache boots LEVEL mods
-            if (boots.containsKey("world_item_id") && boots.get("world_item_id") instanceof Number) {
-                long worldItemId = ((Number) boots.get("world_item_id")).longValue();
-                cachedBootsLevelMod = ItemModRepository.getModValueForWorldItem(worldItemId, "LEVEL");
-            } else {
-                cachedBootsLevelMod = 0;
-            }
-        } else {
-            // No boots equipped, use defaults
-            cachedBootsDefense = 0;
-            cachedBootsLevelMod = 0;
-        }
-
-        // Calculate and cache total defense from all armor items
-        recalculateTotalDefense();
-
-        // Calculate and cache total damage (based on level + weapon + LEVEL mod scaling)
-        recalculateTotalDamage();
     }
 
     /**
-     * Recalculates total defense from all equipped armor items (armor + gloves + boots)
-     * and applies LEVEL mod scaling to each item individually.
+     * Recompiles the equipment stats from the equipped items and their mods.
+     * Both lookups are served from repository caches after the first load.
+     * Should be called whenever a player equips/unequips items.
      */
-    private void recalculateTotalDefense() {
-        int totalDefense = 0;
-
-        // Armor defense (with LEVEL mod scaling)
-        int armorDefense = cachedArmorDefense;
-        if (cachedArmorLevelMod > 0) {
-            float multiplier = 1.0f + (cachedArmorLevelMod * 0.10f);
-            armorDefense = Math.max(0, Math.round(armorDefense * multiplier));
-        }
-        totalDefense += armorDefense;
-
-        // Gloves defense (with LEVEL mod scaling)
-        int glovesDefense = cachedGlovesDefense;
-        if (cachedGlovesLevelMod > 0) {
-            float multiplier = 1.0f + (cachedGlovesLevelMod * 0.10f);
-            glovesDefense = Math.max(0, Math.round(glovesDefense * multiplier));
+    public void refreshEquippedItemsCache() {
+        if (databaseId <= 0) {
+            return; // No database ID yet, can't load
         }
-        totalDefense += glovesDefense;
 
-        // Boots defense (with LEVEL mod scaling)
-        int bootsDefense = cachedBootsDefense;
-        if (cachedBootsLevelMod > 0) {
-            float multiplier = 1.0f + (cachedBootsLevelMod * 0.10f);
-            bootsDefense = Math.max(0, Math.round(bootsDefense * multiplier));
+        Map<String, EquippedItem> equipped = EquippedItemRepository.getEquippedItems(databaseId);
+        List<Long> worldItemIds = new ArrayList<>();
+        for (EquippedItem item : equipped.values()) {
+            worldItemIds.add(item.getWorldItemId());
         }
-        totalDefense += bootsDefense;
-
-        cachedTotalDefense = totalDefense;
-    }
-
-    /**
-     * Recalculates total damage from level + equipped weapon + LEVEL mod scaling.
-     */
-    private void recalculateTotalDamage() {
-        // Base damage: 1 + level + weapon damage
-        int baseDamage = 1 + level + cachedWeaponDamage;
-
-        // Mod scaling: LEVEL increases damage by 10% per mod_value
-        if (cachedWeaponLevelMod > 0) {
-            float multiplier = 1.0f + (cachedWeaponLevelMod * 0.10f);
-            baseDamage = Math.max(1, Math.round(baseDamage * multiplier));
+        StatBlock compiled = StatBlock.compile(level, equipped, ItemModRepository.getModsForWorldItems(worldItemIds));
+        synchronized (statsLock) {
+            // The level may have changed while compiling; publish with the current one
+            stats = compiled.withLevel(level);
         }
-
-        cachedTotalDamage = baseDamage;
     }
 
     public void recordAttack() {
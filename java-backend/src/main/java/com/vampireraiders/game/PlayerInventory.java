@@ -0,0 +1,352 @@
+package com.vampireraiders.game;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inventory and equipment of an online player.
+ * Loaded once at join and kept in sync with the database by the InventoryService writer.
+ *
+ * Equipped items keep their inventory row (and slot_x/slot_y) but don't occupy a grid slot,
+ * matching how the inventory table and equipped_items relate.
+ * All methods are synchronized on the aggregate; callers get copies of entries.
+ */
+public class PlayerInventory {
+    public static final int GRID_COLS = 6;
+    public static final int GRID_ROWS = 12;
+    public static final String[] EQUIP_SLOTS = { "weapon", "gloves", "armor", "boots" };
+
+    private final int playerId;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Long, Entry> byInventoryId = new HashMap<>();
+    private final Map<Integer, Entry> stackIndex = new HashMap<>(); // item template id -> stack entry
+    private final Map<String, Entry> equipped = new LinkedHashMap<>();
+    private final BitSet occupied = new BitSet(GRID_COLS * GRID_ROWS);
+
+    public PlayerInventory(int playerId) {
+        this.playerId = playerId;
+    }
+
+    /**
+     * Build the aggregate from InventoryRepository entries and EquippedItemRepository items.
+     */
+    public static PlayerInventory fromRows(int playerId, List<InventoryEntry> inventoryRows,
+                                           Map<String, EquippedItem> equippedItems) {
+        PlayerInventory inventory = new PlayerInventory(playerId);
+        for (InventoryEntry row : inventoryRows) {
+            Entry entry = new Entry(row.getWorldItemId(), row.getItemTemplateId(), row.getName(), row.getType(),
+                    row.getDamage(), row.getDefense(), row.getRarity(), row.isStackable(),
+                    row.getQuantity(), row.getSlotX(), row.getSlotY());
+            entry.inventoryId = row.getInventoryId();
+            inventory.entries.add(entry);
+            inventory.byInventoryId.put(entry.inventoryId, entry);
+            if (entry.stackable) {
+                inventory.stackIndex.putIfAbsent(entry.itemTemplateId, entry);
+            }
+        }
+        for (Map.Entry<String, EquippedItem> slot : equippedItems.entrySet()) {
+            Entry entry = inventory.byInventoryId.get(slot.getValue().getInventoryId());
+            if (entry != null) {
+                inventory.equipped.put(slot.getKey(), entry);
+            }
+        }
+        inventory.rebuildOccupancy();
+        return inventory;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public static boolean isEquipSlot(String slotType) {
+        for (String slot : EQUIP_SLOTS) {
+            if (slot.equals(slotType)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * True when the item can be picked up: either it stacks onto an existing entry or a grid slot is free.
+     */
+    public synchronized boolean canAccept(int itemTemplateId, boolean stackable) {
+        return (stackable && stackIndex.containsKey(itemTemplateId)) || findFreeSlot() >= 0;
+    }
+
+    public synchronized Entry findStack(int itemTemplateId) {
+        return stackIndex.get(itemTemplateId);
+    }
+
+    /**
+     * First free grid slot (left-to-right, top-to-bottom) as a row-major index, or -1 when full.
+     */
+    public synchronized int findFreeSlot() {
+        int index = occupied.nextClearBit(0);
+        return index < GRID_COLS * GRID_ROWS ? index : -1;
+    }
+
+    /**
+     * Add a new entry at the given slot. Its inventory id stays 0 until the insert is written.
+     */
+    public synchronized Entry add(long worldItemId, ItemTemplate template, int slotIndex) {
+        Entry entry = new Entry(worldItemId, template.getId(), template.getName(), template.getType(),
+                template.getDamage(), template.getDefense(), template.getRarity(), template.isStackable(),
+                1, slotIndex % GRID_COLS, slotIndex / GRID_COLS);
+        entries.add(entry);
+        occupied.set(slotIndex);
+        if (entry.stackable) {
+            stackIndex.putIfAbsent(entry.itemTemplateId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Record the ids assigned when the entry was persisted.
+     */
+    public synchronized void assignIds(Entry entry, long inventoryId, long worldItemId) {
+        entry.inventoryId = inventoryId;
+        entry.worldItemId = worldItemId;
+        if (entries.contains(entry)) {
+            byInventoryId.put(inventoryId, entry);
+        }
+    }
+
+    /**
+     * True while the entry is still part of the inventory (not removed or death-dropped).
+     */
+    public synchronized boolean contains(Entry entry) {
+        return entries.contains(entry);
+    }
+
+    public synchronized Entry get(long inventoryId) {
+        return byInventoryId.get(inventoryId);
+    }
+
+    /**
+     * Current state of the entry (slot, quantity, ids) as an independent copy.
+     */
+    public synchronized Entry snapshot(Entry entry) {
+        return entry.copy();
+    }
+
+    public synchronized void incrementQuantity(Entry entry) {
+        entry.quantity++;
+    }
+
+    public synchronized void decrementQuantity(Entry entry) {
+        entry.quantity = Math.max(1, entry.quantity - 1);
+    }
+
+    /**
+     * Move an entry to a grid slot. Overlaps are allowed (the client swaps items with two moves).
+     */
+    public synchronized boolean move(Entry entry, int slotX, int slotY) {
+        if (slotX < 0 || slotX >= GRID_COLS || slotY < 0 || slotY >= GRID_ROWS) {
+            return false;
+        }
+        int oldX = entry.slotX;
+        int oldY = entry.slotY;
+        entry.slotX = slotX;
+        entry.slotY = slotY;
+        if (!isEquipped(entry)) {
+            refreshSlot(oldX, oldY);
+            occupied.set(slotIndex(slotX, slotY));
+        }
+        return true;
+    }
+
+    /**
+     * Remove an entry; returns false if it was no longer in the inventory.
+     */
+    public synchronized boolean remove(Entry entry) {
+        if (!entries.remove(entry)) return false;
+        byInventoryId.remove(entry.inventoryId);
+        equipped.values().removeIf(e -> e == entry);
+        if (stackIndex.get(entry.itemTemplateId) == entry) {
+            stackIndex.remove(entry.itemTemplateId);
+            for (Entry other : entries) {
+                if (other.stackable && other.itemTemplateId == entry.itemTemplateId) {
+                    stackIndex.put(other.itemTemplateId, other);
+                    break;
+                }
+            }
+        }
+        refreshSlot(entry.slotX, entry.slotY);
+        return true;
+    }
+
+    /**
+     * Put back an entry whose removal could not be persisted. Overlapping an item that
+     * took its slot meanwhile is fine, as with move().
+     */
+    public synchronized void restore(Entry entry) {
+        if (entries.contains(entry)) return;
+        entries.add(entry);
+        byInventoryId.put(entry.inventoryId, entry);
+        if (entry.stackable) {
+            stackIndex.putIfAbsent(entry.itemTemplateId, entry);
+        }
+        if (inGrid(entry.slotX, entry.slotY)) {
+            occupied.set(slotIndex(entry.slotX, entry.slotY));
+        }
+    }
+
+    /**
+     * Empty the inventory and equipment (death drop). Returns the removed live entries,
+     * equipped ones first in slot order; their ids are still filled in by pending writes.
+     */
+    public synchronized List<Entry> removeAll() {
+        List<Entry> removed = new ArrayList<>(equipped.values());
+        for (Entry entry : entries) {
+            if (!isEquipped(entry)) {
+                removed.add(entry);
+            }
+        }
+        entries.clear();
+        byInventoryId.clear();
+        stackIndex.clear();
+        equipped.clear();
+        occupied.clear();
+        return removed;
+    }
+
+    /**
+     * Equip an entry; returns the entry previously in that slot (now back in the grid), or null.
+     */
+    public synchronized Entry equip(Entry entry, String slotType) {
+        equipped.values().removeIf(e -> e == entry);
+        Entry previous = equipped.put(slotType, entry);
+        rebuildOccupancy();
+        return previous;
+    }
+
+    public synchronized Entry unequip(String slotType) {
+        Entry previous = equipped.remove(slotType);
+        if (previous != null) {
+            rebuildOccupancy();
+        }
+        return previous;
+    }
+
+    public synchronized boolean isEquipped(Entry entry) {
+        for (Entry e : equipped.values()) {
+            if (e == entry) return true;
+        }
+        return false;
+    }
+
+    public synchronized String getEquippedSlot(Entry entry) {
+        for (Map.Entry<String, Entry> e : equipped.entrySet()) {
+            if (e.getValue() == entry) return e.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Copies of all entries (including equipped ones, which also live in the inventory table)
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> copy = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            copy.add(entry.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Copies of the equipped entries keyed by slot type
+     */
+    public synchronized Map<String, Entry> getEquipped() {
+        Map<String, Entry> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> e : equipped.entrySet()) {
+            copy.put(e.getKey(), e.getValue().copy());
+        }
+        return copy;
+    }
+
+    private static int slotIndex(int slotX, int slotY) {
+        return slotY * GRID_COLS + slotX;
+    }
+
+    private static boolean inGrid(int slotX, int slotY) {
+        return slotX >= 0 && slotX < GRID_COLS && slotY >= 0 && slotY < GRID_ROWS;
+    }
+
+    // Re-derive one slot's bit after an item left it (another item may still overlap it)
+    private void refreshSlot(int slotX, int slotY) {
+        if (!inGrid(slotX, slotY)) return;
+        boolean taken = false;
+        for (Entry other : entries) {
+            if (other.slotX == slotX && other.slotY == slotY && !isEquipped(other)) {
+                taken = true;
+                break;
+            }
+        }
+        occupied.set(slotIndex(slotX, slotY), taken);
+    }
+
+    private void rebuildOccupancy() {
+        occupied.clear();
+        for (Entry entry : entries) {
+            if (inGrid(entry.slotX, entry.slotY) && !isEquipped(entry)) {
+                occupied.set(slotIndex(entry.slotX, entry.slotY));
+            }
+        }
+    }
+
+    /**
+     * One inventory row. Mutable fields are only changed under the owning PlayerInventory's lock.
+     */
+    public static class Entry {
+        private volatile long inventoryId; // 0 while the insert is pending
+        private volatile long worldItemId;
+        private final int itemTemplateId;
+        private final String name;
+        private final String type;
+        private final int damage;
+        private final int defense;
+        private final String rarity;
+        private final boolean stackable;
+        private int quantity;
+        private int slotX;
+        private int slotY;
+
+        Entry(long worldItemId, int itemTemplateId, String name, String type, int damage, int defense,
+              String rarity, boolean stackable, int quantity, int slotX, int slotY) {
+            this.worldItemId = worldItemId;
+            this.itemTemplateId = itemTemplateId;
+            this.name = name;
+            this.type = type;
+            this.damage = damage;
+            this.defense = defense;
+            this.rarity = rarity;
+            this.stackable = stackable;
+            this.quantity = quantity;
+            this.slotX = slotX;
+            this.slotY = slotY;
+        }
+
+        private Entry copy() {
+            Entry copy = new Entry(worldItemId, itemTemplateId, name, type, damage, defense,
+                    rarity, stackable, quantity, slotX, slotY);
+            copy.inventoryId = inventoryId;
+            return copy;
+        }
+
+        public long getInventoryId() { return inventoryId; }
+        public long getWorldItemId() { return worldItemId; }
+        public int getItemTemplateId() { return itemTemplateId; }
+        public String getName() { return name; }
+        public String getType() { return type; }
+        public int getDamage() { return damage; }
+        public int getDefense() { return defense; }
+        public String getRarity() { return rarity; }
+        public boolean isStackable() { return stackable; }
+        public int getQuantity() { return quantity; }
+        public int getSlotX() { return slotX; }
+        public int getSlotY() { return slotY; }
+    }
+}
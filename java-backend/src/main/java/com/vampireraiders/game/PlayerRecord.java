@@ -0,0 +1,36 @@
+package com.vampireraiders.game;
+
+/**
+ * Immutable saved state of a player (one row of the players table).
+ */
+public final class PlayerRecord {
+    private final int databaseId;
+    private final String username;
+    private final int level;
+    private final int health;
+    private final int maxHealth;
+    private final int xp;
+    private final float x;
+    private final float y;
+
+    public PlayerRecord(int databaseId, String username, int level, int health, int maxHealth,
+                        int xp, float x, float y) {
+        this.databaseId = databaseId;
+        this.username = username;
+        this.level = level;
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.xp = xp;
+        this.x = x;
+        this.y = y;
+    }
+
+    public int getDatabaseId() { return databaseId; }
+    public String getUsername() { return username; }
+    public int getLevel() { return level; }
+    public int getHealth() { return health; }
+    public int getMaxHealth() { return maxHealth; }
+    public int getXp() { return xp; }
+    public float getX() { return x; }
+    public float getY() { return y; }
+}
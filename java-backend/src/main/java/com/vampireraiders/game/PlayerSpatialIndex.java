@@ -0,0 +1,126 @@
+package com.vampireraiders.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid of alive players, bucketed per map.
+ * Rebuilt once per tick so enemy queries only visit the cells around them
+ * instead of scanning every connected player.
+ */
+public class PlayerSpatialIndex {
+    private final float cellSize;
+    private final Map<String, MapGrid> grids = new HashMap<>();
+
+    public PlayerSpatialIndex(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Re-bucket all alive players. Cell lists are reused between ticks.
+     */
+    public void rebuild(Collection<Player> players) {
+        for (MapGrid grid : grids.values()) {
+            grid.clear();
+        }
+
+        for (Player player : players) {
+            if (!player.isAlive()) continue;
+            MapGrid grid = grids.computeIfAbsent(player.getMapId(), this::createGrid);
+            grid.add(player, toCell(player.getX(), grid.cols), toCell(player.getY(), grid.rows));
+        }
+    }
+
+    /**
+     * Find the nearest alive player on the given map within maxDistance pixels.
+     * Returns null when no player is in range.
+     */
+    public Player findNearest(float x, float y, String mapId, float maxDistance) {
+        MapGrid grid = grids.get(mapId);
+        if (grid == null || grid.isEmpty()) {
+            return null;
+        }
+
+        int minCx = toCell(x - maxDistance, grid.cols);
+        int maxCx = toCell(x + maxDistance, grid.cols);
+        int minCy = toCell(y - maxDistance, grid.rows);
+        int maxCy = toCell(y + maxDistance, grid.rows);
+
+        Player nearest = null;
+        float bestDistSq = maxDistance * maxDistance;
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                List<Player> cell = grid.cells.get(cy * grid.cols + cx);
+                if (cell == null) continue;
+                for (int i = 0; i < cell.size(); i++) {
+                    Player player = cell.get(i);
+                    float dx = player.getX() - x;
+                    float dy = player.getY() - y;
+                    float distSq = dx * dx + dy * dy;
+                    if (distSq <= bestDistSq) {
+                        bestDistSq = distSq;
+                        nearest = player;
+                    }
+                }
+            }
+        }
+
+        return nearest;
+    }
+
+    private int toCell(float coord, int limit) {
+        int cell = (int) Math.floor(coord / cellSize);
+        if (cell < 0) return 0;
+        if (cell >= limit) return limit - 1;
+        return cell;
+    }
+
+    private MapGrid createGrid(String mapId) {
+        int cols = Math.max(1, (int) Math.ceil(GameWorld.getWorldWidth(mapId) / cellSize));
+        int rows = Math.max(1, (int) Math.ceil(GameWorld.getWorldHeight(mapId) / cellSize));
+        return new MapGrid(cols, rows);
+    }
+
+    private static class MapGrid {
+        final int cols;
+        final int rows;
+        // One list per cell, created on first use (null until then)
+        final List<List<Player>> cells;
+        final List<Integer> occupied = new ArrayList<>();
+
+        MapGrid(int cols, int rows) {
+            this.cols = cols;
+            this.rows = rows;
+            this.cells = new ArrayList<>(Collections.nCopies(cols * rows, null));
+        }
+
+        void add(Player player, int cx, int cy) {
+            int index = cy * cols + cx;
+            List<Player> cell = cells.get(index);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.set(index, cell);
+            }
+            if (cell.isEmpty()) {
+                occupied.add(index);
+            }
+            cell.add(player);
+        }
+
+        void clear() {
+            for (int i = 0; i < occupied.size(); i++) {
+                cells.get(occupied.get(i)).clear();
+            }
+            occupied.clear();
+        }
+
+        boolean isEmpty() {
+            return occupied.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.vampireraiders.game;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable combat stats of a player, compiled from the equipped items and their mods.
+ * Player swaps in a new instance whenever equipment (or level) changes, so readers
+ * always see one consistent set of values without touching the database.
+ *
+ * Mod folding:
+ *  LEVEL   +10% damage (weapon) or defense (armor pieces) per point, on that item only
+ *  DAMAGE  +% total damage
+ *  RATE    +% attack speed
+ *  RANGE   +% attack range
+ *  DEFENSE +flat defense
+ *  LIFE    +flat max health
+ *  SKILL   not applied yet (no skill system)
+ */
+public final class StatBlock {
+    private static final float DEFAULT_ATTACK_SPEED = 1.0f;
+    private static final float DEFAULT_ATTACK_RANGE = 50.0f;
+    private static final float WEAPON_DEFAULT_ATTACK_RANGE = 200.0f;
+    private static final float LEVEL_MOD_STEP = 0.10f;
+    private static final String[] ARMOR_SLOTS = { "armor", "gloves", "boots" };
+
+    public static final StatBlock EMPTY = new StatBlock(1, 0, 0, 0, DEFAULT_ATTACK_SPEED, DEFAULT_ATTACK_RANGE, null, 0, 0);
+
+    private final int level;
+    private final int weaponDamage;
+    private final int weaponLevelMod;
+    private final int damagePercent;
+    private final float attackSpeed;
+    private final float attackRange;
+    private final String attackType;  // "ranged", "melee", or null
+    private final int totalDefense;
+    private final int bonusLife;
+    private final int totalDamage;
+
+    private StatBlock(int level, int weaponDamage, int weaponLevelMod, int damagePercent,
+                      float attackSpeed, float attackRange, String attackType, int totalDefense, int bonusLife) {
+        this.level = level;
+        this.weaponDamage = weaponDamage;
+        this.weaponLevelMod = weaponLevelMod;
+        this.damagePercent = damagePercent;
+        this.attackSpeed = attackSpeed;
+        this.attackRange = attackRange;
+        this.attackType = attackType;
+        this.totalDefense = totalDefense;
+        this.bonusLife = bonusLife;
+        this.totalDamage = computeTotalDamage(level, weaponDamage, weaponLevelMod, damagePercent);
+    }
+
+    /**
+     * Compile stats from the equipped items (slot -> item) and the mods of those items
+     * keyed by world_item_id.
+     */
+    public static StatBlock compile(int level, Map<String, EquippedItem> equipped,
+                                    Map<Long, List<ItemModValue>> modsByWorldItem) {
+        int damagePercent = 0;
+        int ratePercent = 0;
+        int rangePercent = 0;
+        int flatDefense = 0;
+        int bonusLife = 0;
+        for (EquippedItem item : equipped.values()) {
+            for (ItemModValue mod : modsOf(item, modsByWorldItem)) {
+                int value = mod.getModValue();
+                switch (mod.getModType()) {
+                    case "DAMAGE": damagePercent += value; break;
+                    case "RATE": ratePercent += value; break;
+                    case "RANGE": rangePercent += value; break;
+                    case "DEFENSE": flatDefense += value; break;
+                    case "LIFE": bonusLife += value; break;
+                    default: break;  // LEVEL is applied per item below, SKILL is not used yet
+                }
+            }
+        }
+
+        // Weapon
+        EquippedItem weapon = equipped.get("weapon");
+        int weaponDamage = 0;
+        int weaponLevelMod = 0;
+        float attackSpeed = DEFAULT_ATTACK_SPEED;
+        float attackRange = DEFAULT_ATTACK_RANGE;
+        String attackType = null;
+        if (weapon != null) {
+            weaponDamage = weapon.getDamage();
+            weaponLevelMod = levelModOf(weapon, modsByWorldItem);
+            attackSpeed = weapon.getAttackSpeed();
+            attackRange = weapon.getAttackRange() > 0 ? weapon.getAttackRange() : WEAPON_DEFAULT_ATTACK_RANGE;
+            attackType = weapon.getAttackType();
+        }
+        if (attackSpeed <= 0) {
+            attackSpeed = DEFAULT_ATTACK_SPEED;
+        }
+        attackSpeed *= 1.0f + ratePercent / 100.0f;
+        attackRange *= 1.0f + rangePercent / 100.0f;
+
+        // Armor pieces, each scaled by its own LEVEL mod
+        int totalDefense = flatDefense;
+        for (String slot : ARMOR_SLOTS) {
+            EquippedItem piece = equipped.get(slot);
+            if (piece == null) continue;
+            int defense = piece.getDefense();
+            int levelMod = levelModOf(piece, modsByWorldItem);
+            if (levelMod > 0) {
+                defense = Math.max(0, Math.round(defense * (1.0f + levelMod * LEVEL_MOD_STEP)));
+            }
+            totalDefense += defense;
+        }
+
+        return new StatBlock(level, weaponDamage, weaponLevelMod, damagePercent,
+                attackSpeed, attackRange, attackType, totalDefense, bonusLife);
+    }
+
+    /**
+     * Same equipment at a new player level (damage scales with level).
+     */
+    public StatBlock withLevel(int newLevel) {
+        if (newLevel == level) {
+            return this;
+        }
+        return new StatBlock(newLevel, weaponDamage, weaponLevelMod, damagePercent,
+                attackSpeed, attackRange, attackType, totalDefense, bonusLife);
+    }
+
+    private static int computeTotalDamage(int level, int weaponDamage, int weaponLevelMod, int damagePercent) {
+        // Base damage: 1 + level + weapon damage
+        int damage = 1 + level + weaponDamage;
+        if (weaponLevelMod > 0) {
+            damage = Math.max(1, Math.round(damage * (1.0f + weaponLevelMod * LEVEL_MOD_STEP)));
+        }
+        if (damagePercent > 0) {
+            damage = Math.max(1, Math.round(damage * (1.0f + damagePercent / 100.0f)));
+        }
+        return damage;
+    }
+
+    private static List<ItemModValue> modsOf(EquippedItem item, Map<Long, List<ItemModValue>> modsByWorldItem) {
+        return modsByWorldItem.getOrDefault(item.getWorldItemId(), Collections.emptyList());
+    }
+
+    // Highest LEVEL mod of the item (like ItemModRepository.getModValue), not the sum
+    private static int levelModOf(EquippedItem item, Map<Long, List<ItemModValue>> modsByWorldItem) {
+        int level = 0;
+        for (ItemModValue mod : modsOf(item, modsByWorldItem)) {
+            if ("LEVEL".equals(mod.getModType())) {
+                level = Math.max(level, mod.getModValue());
+            }
+        }
+        return level;
+    }
+
+    public int getLevel() { return level; }
+    public int getWeaponDamage() { return weaponDamage; }
+    public int getWeaponLevelMod() { return weaponLevelMod; }
+    public float getAttackSpeed() { return attackSpeed; }
+    public float getAttackRange() { return attackRange; }
+    public String getAttackType() { return attackType; }
+    public int getTotalDamage() { return totalDamage; }
+    public int getTotalDefense() { return totalDefense; }
+    public int getBonusLife() { return bonusLife; }
+}
@@ -34,6 +34,33 @@ public enum TelegraphType {
         return depth;
     }
 
+    /**
+     * Telegraph type based on enemy name
+     */
+    public static TelegraphType forEnemy(String enemyName) {
+        if (enemyName == null) {
+            return RECTANGLE_96_96;
+        }
+        switch (enemyName) {
+            case "Spider":
+                return CIRCLE;
+            case "Worm":
+                return RECTANGLE_36_48;
+            case "Wild Dog":
+                return RECTANGLE_48_72;
+            case "Hound":
+                return RECTANGLE_72_72;
+            case "Elite Wild Dog":
+                return RECTANGLE_48_96;
+            case "Giant":
+                return RECTANGLE_96_96;
+            case "Skeleton":
+                return RECTANGLE_20_120;
+            default:
+                return RECTANGLE_96_96;  // Default fallback
+        }
+    }
+
     /**
      * Check if this telegraph type is a circle
      */
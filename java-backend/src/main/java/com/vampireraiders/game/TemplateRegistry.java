@@ -0,0 +1,155 @@
+package com.vampireraiders.game;
+
+import com.vampireraiders.util.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of the static item/enemy/mod data, indexed for the game loop.
+ *
+ * Templates sit in dense arrays indexed by their database id and every enemy template has a
+ * precompiled LootTable, so template lookups and loot rolls are constant-time and allocation-free.
+ * A new snapshot is built off to the side and swapped in with install(); readers keep using the
+ * instance they fetched, and the version tells them apart.
+ */
+public final class TemplateRegistry {
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    public static final TemplateRegistry EMPTY = new TemplateRegistry(0, new ItemTemplate[0], new EnemyTemplate[0],
+            new LootTable[0], Collections.emptyMap(), Collections.emptyMap());
+
+    private static volatile TemplateRegistry current = EMPTY;
+
+    private final long version;
+    private final ItemTemplate[] itemsById;
+    private final EnemyTemplate[] enemiesById;
+    private final LootTable[] lootByEnemyId;
+    private final Map<String, EnemyTemplate> enemiesByName;
+    // mod_type -> (mod_value -> template), values in ascending order
+    private final Map<String, NavigableMap<Integer, ModTemplate>> modsByType;
+
+    private TemplateRegistry(long version, ItemTemplate[] itemsById, EnemyTemplate[] enemiesById,
+                             LootTable[] lootByEnemyId, Map<String, EnemyTemplate> enemiesByName,
+                             Map<String, NavigableMap<Integer, ModTemplate>> modsByType) {
+        this.version = version;
+        this.itemsById = itemsById;
+        this.enemiesById = enemiesById;
+        this.lootByEnemyId = lootByEnemyId;
+        this.enemiesByName = enemiesByName;
+        this.modsByType = modsByType;
+    }
+
+    public static TemplateRegistry get() {
+        return current;
+    }
+
+    public static void install(TemplateRegistry registry) {
+        current = registry;
+        Logger.info("Template registry v" + registry.version + " installed (" + registry.getItemTemplateCount() +
+                " item templates, " + registry.enemiesByName.size() + " enemy templates, " +
+                registry.modsByType.size() + " mod types)");
+    }
+
+    /**
+     * Build a new snapshot. Drops are keyed by enemy template id.
+     */
+    public static TemplateRegistry build(Collection<ItemTemplate> itemTemplates,
+                                         Collection<EnemyTemplate> enemyTemplates,
+                                         Map<Integer, List<EnemyItem>> dropsByEnemy,
+                                         Collection<ModTemplate> modTemplates) {
+        int maxItemId = -1;
+        for (ItemTemplate item : itemTemplates) {
+            maxItemId = Math.max(maxItemId, item.getId());
+        }
+        ItemTemplate[] itemsById = new ItemTemplate[maxItemId + 1];
+        for (ItemTemplate item : itemTemplates) {
+            itemsById[item.getId()] = item;
+        }
+
+        int maxEnemyId = -1;
+        for (EnemyTemplate enemy : enemyTemplates) {
+            maxEnemyId = Math.max(maxEnemyId, enemy.getId());
+        }
+        EnemyTemplate[] enemiesById = new EnemyTemplate[maxEnemyId + 1];
+        LootTable[] lootByEnemyId = new LootTable[maxEnemyId + 1];
+        Map<String, EnemyTemplate> enemiesByName = new HashMap<>();
+        for (EnemyTemplate enemy : enemyTemplates) {
+            enemiesById[enemy.getId()] = enemy;
+            enemiesByName.put(enemy.getName(), enemy);
+            List<EnemyItem> drops = dropsByEnemy.getOrDefault(enemy.getId(), Collections.emptyList());
+            lootByEnemyId[enemy.getId()] = LootTable.build(enemy.getId(), drops, itemsById);
+        }
+
+        Map<String, NavigableMap<Integer, ModTemplate>> modsByType = new HashMap<>();
+        for (ModTemplate mod : modTemplates) {
+            modsByType.computeIfAbsent(mod.getModType(), k -> new TreeMap<>()).put(mod.getModValue(), mod);
+        }
+        modsByType.replaceAll((k, v) -> Collections.unmodifiableNavigableMap(v));
+
+        return new TemplateRegistry(VERSIONS.incrementAndGet(), itemsById, enemiesById, lootByEnemyId,
+                Collections.unmodifiableMap(enemiesByName), Collections.unmodifiableMap(modsByType));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ItemTemplate getItemTemplate(int id) {
+        return id >= 0 && id < itemsById.length ? itemsById[id] : null;
+    }
+
+    public EnemyTemplate getEnemyTemplate(int id) {
+        return id >= 0 && id < enemiesById.length ? enemiesById[id] : null;
+    }
+
+    /**
+     * Name lookup for configuration-time resolution; cache the result rather than calling this per spawn.
+     */
+    public EnemyTemplate getEnemyTemplateByName(String name) {
+        return enemiesByName.get(name);
+    }
+
+    /**
+     * Roll the loot of one kill; returns the dropped item template, or null for no drop.
+     */
+    public ItemTemplate rollLoot(int enemyTemplateId, Random random) {
+        if (enemyTemplateId < 0 || enemyTemplateId >= lootByEnemyId.length) {
+            return null;
+        }
+        LootTable table = lootByEnemyId[enemyTemplateId];
+        return table != null ? table.roll(random) : null;
+    }
+
+    /**
+     * Id of the mod template with this type and value, or null if there is none.
+     */
+    public Integer getModTemplateId(String modType, int modValue) {
+        NavigableMap<Integer, ModTemplate> values = modsByType.get(modType);
+        ModTemplate mod = values != null ? values.get(modValue) : null;
+        return mod != null ? mod.getId() : null;
+    }
+
+    /**
+     * Highest mod_value defined for the type, or 0 if there are none.
+     */
+    public int getMaxModValue(String modType) {
+        NavigableMap<Integer, ModTemplate> values = modsByType.get(modType);
+        return values != null && !values.isEmpty() ? Math.max(0, values.lastKey()) : 0;
+    }
+
+    public int getItemTemplateCount() {
+        int count = 0;
+        for (ItemTemplate item : itemsById) {
+            if (item != null) count++;
+        }
+        return count;
+    }
+}
@@ -71,15 +71,47 @@ public enum TileType {
         return Integer.parseInt(code.substring(2)); // Extract number from EL1, EL2, etc.
     }
     
+    // Lookup table indexed by the packed 3-character code (each char in [0-9A-Z])
+    private static final int CODE_RADIX = 36;
+    private static final TileType[] BY_PACKED_CODE = new TileType[CODE_RADIX * CODE_RADIX * CODE_RADIX];
+    
+    static {
+        for (TileType type : values()) {
+            String code = type.code;
+            BY_PACKED_CODE[packCode(code.charAt(0), code.charAt(1), code.charAt(2))] = type;
+        }
+    }
+    
+    private static int charIndex(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        return -1;
+    }
+    
+    private static int packCode(int c0, int c1, int c2) {
+        int i0 = charIndex(c0);
+        int i1 = charIndex(c1);
+        int i2 = charIndex(c2);
+        if (i0 < 0 || i1 < 0 || i2 < 0) return -1;
+        return (i0 * CODE_RADIX + i1) * CODE_RADIX + i2;
+    }
+    
+    /**
+     * Look up a tile type from the three raw characters of its code, or null if unknown
+     */
+    public static TileType fromCodeChars(int c0, int c1, int c2) {
+        int packed = packCode(c0, c1, c2);
+        return packed < 0 ? null : BY_PACKED_CODE[packed];
+    }
+    
     /**
      * Parse tile type from code string (e.g., "BLK", "SAF", "PV1")
      */
     public static TileType fromCode(String code) {
-        for (TileType type : values()) {
-            if (type.code.equals(code)) {
-                return type;
-            }
+        TileType type = code.length() == 3 ? fromCodeChars(code.charAt(0), code.charAt(1), code.charAt(2)) : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown tile code: " + code);
         }
-        throw new IllegalArgumentException("Unknown tile code: " + code);
+        return type;
     }
 }
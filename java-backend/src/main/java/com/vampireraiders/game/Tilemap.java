@@ -2,8 +2,14 @@ package com.vampireraiders.game;
 
 import com.vampireraiders.util.Logger;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tile-based map system for managing walkability and zone types
@@ -12,10 +18,25 @@ import java.util.List;
 public class Tilemap {
     public static final int TILE_SIZE = 64; // pixels per tile
     
+    // Per-tile attribute bits in the flattened flags array
+    public static final byte FLAG_PLAYER_WALKABLE = 1;
+    public static final byte FLAG_ENEMY_WALKABLE = 1 << 1;
+    public static final byte FLAG_SAFE_ZONE = 1 << 2;
+    public static final byte FLAG_ELITE_SPAWN = 1 << 3;
+    
     private final TileType[][] tiles;
     private final int mapWidth;
     private final int mapHeight;
     private final List<EliteSpawnPoint> eliteSpawns;
+    // Row-major (y * width + x) tile attributes, built once at load time for the hot-path queries
+    private final byte[] flags;
+    private final byte[] spawnLevels; // 0 = not a spawn zone
+    // Derived data computed once at load time; all lists are immutable and store packed cell indices
+    private final List<List<TilePosition>> spawnZonesByLevel; // index = spawn level
+    private final List<TilePosition> portalCandidates;
+    // Tiles of a type, only built for the types that are actually queried
+    private final Map<TileType, List<TilePosition>> tilesByType = new ConcurrentHashMap<>();
+    private final float[] safeZoneCenter;
     
     /**
      * Constructor for file-loaded maps
@@ -24,19 +45,70 @@ public class Tilemap {
         this.tiles = tiles;
         this.mapWidth = width;
         this.mapHeight = height;
-        this.eliteSpawns = new ArrayList<>();
+        this.flags = new byte[width * height];
+        this.spawnLevels = new byte[width * height];
+        
+        int maxSpawnLevel = 0;
+        for (TileType type : TileType.values()) {
+            if (type.getSpawnLevel() != null) {
+                maxSpawnLevel = Math.max(maxSpawnLevel, type.getSpawnLevel());
+            }
+        }
         
-        // Extract elite spawn positions
+        List<EliteSpawnPoint> elites = new ArrayList<>();
+        List<CellListBuilder> byLevel = new ArrayList<>(maxSpawnLevel + 1);
+        for (int level = 0; level <= maxSpawnLevel; level++) {
+            byLevel.add(new CellListBuilder());
+        }
+        CellListBuilder portals = new CellListBuilder();
+        int safeCount = 0;
+        float safeSumX = 0, safeSumY = 0;
+        
+        // Single pass: flatten tile attributes and index cells by spawn level and role
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 TileType type = tiles[x][y];
+                int index = y * width + x;
+                flags[index] = flagsFor(type);
+                spawnLevels[index] = type.getSpawnLevel() != null ? type.getSpawnLevel().byteValue() : 0;
+                
+                float worldX = (x + 0.5f) * TILE_SIZE;
+                float worldY = (y + 0.5f) * TILE_SIZE;
+                if (type.getSpawnLevel() != null) {
+                    byLevel.get(type.getSpawnLevel()).add(index);
+                }
+                if (type.isPlayerWalkable() && !type.isSafeZone()) {
+                    portals.add(index);
+                }
+                if (type.isSafeZone()) {
+                    safeSumX += worldX;
+                    safeSumY += worldY;
+                    safeCount++;
+                }
                 if (type.isEliteSpawn()) {
-                    float worldX = (x + 0.5f) * TILE_SIZE;
-                    float worldY = (y + 0.5f) * TILE_SIZE;
-                    eliteSpawns.add(new EliteSpawnPoint(type.getEliteId(), worldX, worldY));
+                    elites.add(new EliteSpawnPoint(type.getEliteId(), worldX, worldY));
                 }
             }
         }
+        
+        List<List<TilePosition>> spawnZones = new ArrayList<>(byLevel.size());
+        for (CellListBuilder level : byLevel) {
+            spawnZones.add(level.build(width));
+        }
+        this.eliteSpawns = Collections.unmodifiableList(elites);
+        this.spawnZonesByLevel = Collections.unmodifiableList(spawnZones);
+        this.portalCandidates = portals.build(width);
+        
+        if (safeCount == 0) {
+            // Fallback to map center
+            float centerX = (width * TILE_SIZE) / 2.0f;
+            float centerY = (height * TILE_SIZE) / 2.0f;
+            Logger.warn("No safe zone tiles found! Falling back to map center: (" + centerX + ", " + centerY + ")");
+            this.safeZoneCenter = new float[] { centerX, centerY };
+        } else {
+            this.safeZoneCenter = new float[] { safeSumX / safeCount, safeSumY / safeCount };
+            Logger.info("Safe zone center calculated from " + safeCount + " tiles: (" + safeZoneCenter[0] + ", " + safeZoneCenter[1] + ")");
+        }
     }
     
     public int getMapWidth() {
@@ -47,18 +119,75 @@ public class Tilemap {
         return mapHeight;
     }
     
+    /**
+     * Elite spawn points (immutable, computed at load time)
+     */
     public List<EliteSpawnPoint> getEliteSpawns() {
         return eliteSpawns;
     }
     
+    private static byte flagsFor(TileType type) {
+        int bits = 0;
+        if (type.isPlayerWalkable()) bits |= FLAG_PLAYER_WALKABLE;
+        if (type.isEnemyWalkable()) bits |= FLAG_ENEMY_WALKABLE;
+        if (type.isSafeZone()) bits |= FLAG_SAFE_ZONE;
+        if (type.isEliteSpawn()) bits |= FLAG_ELITE_SPAWN;
+        return (byte) bits;
+    }
+    
+    /**
+     * Convert a world coordinate (pixels) to a grid coordinate. Negative positions map to -1 (out of bounds).
+     */
+    public static int toGrid(float world) {
+        return world < 0 ? -1 : (int) (world / TILE_SIZE);
+    }
+    
+    /**
+     * Row-major index of a grid cell, or -1 when out of bounds
+     */
+    public int indexOf(int gridX, int gridY) {
+        if (gridX < 0 || gridX >= mapWidth || gridY < 0 || gridY >= mapHeight) {
+            return -1;
+        }
+        return gridY * mapWidth + gridX;
+    }
+    
+    /**
+     * Attribute bits of a grid cell (0 when out of bounds, i.e. blocked)
+     */
+    public int getFlags(int gridX, int gridY) {
+        int index = indexOf(gridX, gridY);
+        return index < 0 ? 0 : flags[index];
+    }
+    
+    public boolean isWalkableCell(int gridX, int gridY) {
+        return (getFlags(gridX, gridY) & FLAG_PLAYER_WALKABLE) != 0;
+    }
+    
+    public boolean isEnemyWalkableCell(int gridX, int gridY) {
+        return (getFlags(gridX, gridY) & FLAG_ENEMY_WALKABLE) != 0;
+    }
+    
+    public boolean isSafeZoneCell(int gridX, int gridY) {
+        return (getFlags(gridX, gridY) & FLAG_SAFE_ZONE) != 0;
+    }
+    
+    /**
+     * Spawn level of a grid cell, or 0 when it is not a spawn zone
+     */
+    public int getSpawnLevelCell(int gridX, int gridY) {
+        int index = indexOf(gridX, gridY);
+        return index < 0 ? 0 : spawnLevels[index];
+    }
+    
     /**
      * Get tile type at world position (in pixels)
      */
     public TileType getTileAt(float worldX, float worldY) {
-        int gridX = (int) (worldX / TILE_SIZE);
-        int gridY = (int) (worldY / TILE_SIZE);
+        int gridX = toGrid(worldX);
+        int gridY = toGrid(worldY);
         
-        if (gridX < 0 || gridX >= mapWidth || gridY < 0 || gridY >= mapHeight) {
+        if (indexOf(gridX, gridY) < 0) {
             return TileType.BLOCKED; // Out of bounds = blocked
         }
         
@@ -69,131 +198,142 @@ public class Tilemap {
      * Check if a world position is walkable for players
      */
     public boolean isWalkable(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.isPlayerWalkable();
+        return isWalkableCell(toGrid(worldX), toGrid(worldY));
     }
     
     /**
      * Check if a world position is walkable for enemies
      */
     public boolean isEnemyWalkable(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.isEnemyWalkable();
+        return isEnemyWalkableCell(toGrid(worldX), toGrid(worldY));
     }
     
     /**
      * Check if position is in safe zone
      */
     public boolean isInSafeZone(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.isSafeZone();
+        return isSafeZoneCell(toGrid(worldX), toGrid(worldY));
     }
     
     /**
      * Check if position is in hunting zone (any PVE area where enemies can be)
      */
     public boolean isInHuntingZone(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.isEnemyWalkable() && !type.isSafeZone();
+        int bits = getFlags(toGrid(worldX), toGrid(worldY));
+        return (bits & FLAG_ENEMY_WALKABLE) != 0 && (bits & FLAG_SAFE_ZONE) == 0;
     }
     
     /**
      * Get spawn level for a position (null if not a spawn zone)
      */
     public Integer getSpawnLevel(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.getSpawnLevel();
+        int level = getSpawnLevelCell(toGrid(worldX), toGrid(worldY));
+        return level == 0 ? null : level;
     }
     
     /**
      * Check if position is an elite spawn point
      */
     public boolean isEliteSpawn(float worldX, float worldY) {
-        TileType type = getTileAt(worldX, worldY);
-        return type.isEliteSpawn();
+        return (getFlags(toGrid(worldX), toGrid(worldY)) & FLAG_ELITE_SPAWN) != 0;
     }
     
     /**
-     * Get the center of the safe zone
+     * Check that every tile crossed by the segment is walkable for players
      */
-    public float[] getSafeZoneCenter() {
-        // Find center of all safe zone tiles
-        int count = 0;
-        float sumX = 0, sumY = 0;
-        
-        for (int x = 0; x < mapWidth; x++) {
-            for (int y = 0; y < mapHeight; y++) {
-                if (tiles[x][y].isSafeZone()) {
-                    sumX += (x + 0.5f) * TILE_SIZE;
-                    sumY += (y + 0.5f) * TILE_SIZE;
-                    count++;
-                }
-            }
+    public boolean isSegmentWalkable(float x0, float y0, float x1, float y1) {
+        return isSegmentClear(x0, y0, x1, y1, FLAG_PLAYER_WALKABLE);
+    }
+    
+    /**
+     * Check that every tile crossed by the segment is walkable for enemies
+     */
+    public boolean isEnemySegmentWalkable(float x0, float y0, float x1, float y1) {
+        return isSegmentClear(x0, y0, x1, y1, FLAG_ENEMY_WALKABLE);
+    }
+    
+    /**
+     * Grid traversal (Amanatides & Woo) visiting every tile the segment enters.
+     * The start tile is not checked, so an entity left on a blocked tile (clamping, map edit,
+     * saved position) can still walk off it; a move within one tile checks that tile, as the
+     * destination-only check did before.
+     */
+    private boolean isSegmentClear(float x0, float y0, float x1, float y1, int flag) {
+        int gridX = toGrid(x0);
+        int gridY = toGrid(y0);
+        int endX = toGrid(x1);
+        int endY = toGrid(y1);
+        if (gridX == endX && gridY == endY) {
+            return (getFlags(endX, endY) & flag) != 0;
         }
         
-        if (count == 0) {
-            // Fallback to map center
-            float centerX = (mapWidth * TILE_SIZE) / 2.0f;
-            float centerY = (mapHeight * TILE_SIZE) / 2.0f;
-            Logger.warn("No safe zone tiles found! Falling back to map center: (" + centerX + ", " + centerY + ")");
-            return new float[] { centerX, centerY };
-        }
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        float tDeltaX = stepX != 0 ? TILE_SIZE / Math.abs(dx) : Float.POSITIVE_INFINITY;
+        float tDeltaY = stepY != 0 ? TILE_SIZE / Math.abs(dy) : Float.POSITIVE_INFINITY;
+        float tMaxX = stepX > 0 ? ((gridX + 1) * TILE_SIZE - x0) / dx
+                : stepX < 0 ? (gridX * TILE_SIZE - x0) / dx : Float.POSITIVE_INFINITY;
+        float tMaxY = stepY > 0 ? ((gridY + 1) * TILE_SIZE - y0) / dy
+                : stepY < 0 ? (gridY * TILE_SIZE - y0) / dy : Float.POSITIVE_INFINITY;
         
-        Logger.info("Safe zone center calculated from " + count + " tiles: (" + (sumX / count) + ", " + (sumY / count) + ")");
-        return new float[] { sumX / count, sumY / count };
+        int steps = Math.abs(endX - gridX) + Math.abs(endY - gridY);
+        for (int i = 0; i < steps; i++) {
+            if (tMaxX < tMaxY) {
+                gridX += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                gridY += stepY;
+                tMaxY += tDeltaY;
+            }
+            if ((getFlags(gridX, gridY) & flag) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Get the center of the safe zone (computed at load time; returns a copy)
+     */
+    public float[] getSafeZoneCenter() {
+        return safeZoneCenter.clone();
     }
     
     /**
-     * Get all tiles of a specific type
+     * Get all tiles of a specific type (immutable, computed on the first query for the type)
      */
     public List<TilePosition> getTilesOfType(TileType targetType) {
-        List<TilePosition> positions = new ArrayList<>();
-        for (int x = 0; x < mapWidth; x++) {
+        return tilesByType.computeIfAbsent(targetType, type -> {
+            CellListBuilder cells = new CellListBuilder();
             for (int y = 0; y < mapHeight; y++) {
-                if (tiles[x][y] == targetType) {
-                    float worldX = (x + 0.5f) * TILE_SIZE;
-                    float worldY = (y + 0.5f) * TILE_SIZE;
-                    positions.add(new TilePosition(x, y, worldX, worldY));
+                for (int x = 0; x < mapWidth; x++) {
+                    if (tiles[x][y] == type) {
+                        cells.add(y * mapWidth + x);
+                    }
                 }
             }
-        }
-        return positions;
+            return cells.build(mapWidth);
+        });
     }
     
     /**
-     * Get all spawn zones of a specific level
+     * Get all spawn zones of a specific level (immutable, computed at load time)
      */
     public List<TilePosition> getSpawnZones(int level) {
-        List<TilePosition> positions = new ArrayList<>();
-        for (int x = 0; x < mapWidth; x++) {
-            for (int y = 0; y < mapHeight; y++) {
-                TileType type = tiles[x][y];
-                if (type.getSpawnLevel() != null && type.getSpawnLevel() == level) {
-                    float worldX = (x + 0.5f) * TILE_SIZE;
-                    float worldY = (y + 0.5f) * TILE_SIZE;
-                    positions.add(new TilePosition(x, y, worldX, worldY));
-                }
-            }
+        if (level < 0 || level >= spawnZonesByLevel.size()) {
+            return Collections.emptyList();
         }
-        return positions;
+        return spawnZonesByLevel.get(level);
     }
 
     /**
      * Get tiles suitable for portal placement (walkable, non-safe).
+     * Immutable; copy before removing picked positions.
      */
     public List<TilePosition> getPortalCandidates() {
-        List<TilePosition> positions = new ArrayList<>();
-        for (int x = 0; x < mapWidth; x++) {
-            for (int y = 0; y < mapHeight; y++) {
-                TileType type = tiles[x][y];
-                if (type.isPlayerWalkable() && !type.isSafeZone()) {
-                    float worldX = (x + 0.5f) * TILE_SIZE;
-                    float worldY = (y + 0.5f) * TILE_SIZE;
-                    positions.add(new TilePosition(x, y, worldX, worldY));
-                }
-            }
-        }
-        return positions;
+        return portalCandidates;
     }
     
     /**
@@ -228,6 +368,48 @@ public class Tilemap {
         }
     }
     
+    /**
+     * Immutable list of tiles stored as row-major cell indices; positions are created on access,
+     * so a list costs 4 bytes per tile instead of one object per tile.
+     */
+    private static final class CellList extends AbstractList<TilePosition> implements RandomAccess {
+        private final int[] cells;
+        private final int width;
+
+        CellList(int[] cells, int width) {
+            this.cells = cells;
+            this.width = width;
+        }
+
+        @Override
+        public TilePosition get(int i) {
+            int x = cells[i] % width;
+            int y = cells[i] / width;
+            return new TilePosition(x, y, (x + 0.5f) * TILE_SIZE, (y + 0.5f) * TILE_SIZE);
+        }
+
+        @Override
+        public int size() {
+            return cells.length;
+        }
+    }
+
+    private static final class CellListBuilder {
+        private int[] cells = new int[16];
+        private int size = 0;
+
+        void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        List<TilePosition> build(int width) {
+            return size == 0 ? Collections.emptyList() : new CellList(Arrays.copyOf(cells, size), width);
+        }
+    }
+    
     /**
      * Get raw tile grid (for debugging/visualization)
      */
@@ -1,6 +1,11 @@
 package com.vampireraiders.game;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class WorldItem {
+    // Ids for drops that only exist in memory; kept far above world_items AUTO_INCREMENT ids
+    private static final AtomicLong TRANSIENT_IDS = new AtomicLong(1L << 40);
+
     private final long id;
     private final int itemTemplateId;
     private final float x;
@@ -9,23 +14,41 @@ public class WorldItem {
     private Integer claimedBy; // null when unclaimed
     private String templateName; // optional helper for broadcasting
     private String itemType; // optional helper for broadcasting
-    private boolean hasMods = false;
+    private volatile boolean hasMods = false; // may be set later by the inventory writer
+    private final boolean persisted; // false until the item has a world_items row
     private final long spawnedAtMs; // timestamp when item was spawned
     private static final long ITEM_TTL_MS = 60000; // 60 seconds
 
     public WorldItem(long id, int itemTemplateId, float x, float y, Integer claimedBy) {
+        this(id, itemTemplateId, x, y, claimedBy, true);
+    }
+
+    private WorldItem(long id, int itemTemplateId, float x, float y, Integer claimedBy, boolean persisted) {
         this.id = id;
         this.itemTemplateId = itemTemplateId;
         this.x = x;
         this.y = y;
         this.claimedBy = claimedBy;
+        this.persisted = persisted;
         this.spawnedAtMs = System.currentTimeMillis();
     }
 
+    /**
+     * Create an unclaimed drop that lives only in GameState.
+     * It is written to world_items when a player picks it up.
+     */
+    public static WorldItem createTransient(int itemTemplateId, float x, float y) {
+        return new WorldItem(TRANSIENT_IDS.getAndIncrement(), itemTemplateId, x, y, null, false);
+    }
+
     public long getId() {
         return id;
     }
 
+    public boolean isPersisted() {
+        return persisted;
+    }
+
     public int getItemTemplateId() {
         return itemTemplateId;
     }
@@ -0,0 +1,20 @@
+package com.vampireraiders.game;
+
+/**
+ * Template id, name and type of a persisted world item.
+ */
+public final class WorldItemInfo {
+    private final int itemTemplateId;
+    private final String name;
+    private final String type;
+
+    public WorldItemInfo(int itemTemplateId, String name, String type) {
+        this.itemTemplateId = itemTemplateId;
+        this.name = name;
+        this.type = type;
+    }
+
+    public int getItemTemplateId() { return itemTemplateId; }
+    public String getName() { return name; }
+    public String getType() { return type; }
+}
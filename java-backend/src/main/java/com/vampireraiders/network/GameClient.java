@@ -7,9 +7,10 @@ public class GameClient {
     private final int peerId;
     private final String ipAddress;
     private final int port;
-    private Player player;
-    private boolean authenticated = false;
-    private long lastHeartbeat;
+    // Set by the login thread, read by the client reader thread
+    private volatile Player player;
+    private volatile boolean authenticated = false;
+    private volatile long lastHeartbeat;
     private final long connectionTime;
     private PrintWriter outputStream;
 
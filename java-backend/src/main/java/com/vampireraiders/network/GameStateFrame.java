@@ -0,0 +1,28 @@
+package com.vampireraiders.network;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One serialized game_state message, shared by every client it is sent to. The UTF-8 bytes
+ * for the UDP snapshot channel are encoded on first use, so once per frame rather than per
+ * client. Game loop thread only.
+ */
+public final class GameStateFrame {
+    private final String text;
+    private byte[] utf8;
+
+    public GameStateFrame(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    byte[] getUtf8() {
+        if (utf8 == null) {
+            utf8 = text.getBytes(StandardCharsets.UTF_8);
+        }
+        return utf8;
+    }
+}
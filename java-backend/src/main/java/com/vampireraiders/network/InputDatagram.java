@@ -0,0 +1,81 @@
+package com.vampireraiders.network;
+
+/**
+ * Binary UDP movement input, little-endian. Version 1 (29 bytes):
+ *
+ *   [0]      0xB1 (format tag; JSON datagrams start with '{')
+ *   [1..4]   peer id (int32)
+ *   [5..8]   seq (uint32, shares the counter with register_udp)
+ *   [9..10]  dir_x * 32767 (int16)
+ *   [11..12] dir_y * 32767 (int16)
+ *   [13..28] first 16 bytes of HMAC-SHA256(udp_token, bytes 0..12)
+ *
+ * Version 2 (0xB2, 34 bytes) keeps bytes 1..12 and adds snapshot acks, so it can also be sent
+ * without input as a keepalive:
+ *
+ *   [13..16] seq of the latest complete UDP snapshot (uint32, 0 = none yet)
+ *   [17]     flags, bit 0 = carries input (dir_x/dir_y are ignored otherwise)
+ *   [18..33] first 16 bytes of HMAC-SHA256(udp_token, bytes 0..17)
+ *
+ * Read straight out of the receive buffer, nothing is allocated.
+ */
+final class InputDatagram {
+    static final byte TAG = (byte) 0xB1;
+    static final byte TAG_V2 = (byte) 0xB2;
+    static final int SIGNED_LENGTH = 13;
+    static final int SIGNED_LENGTH_V2 = 18;
+    static final int LENGTH = SIGNED_LENGTH + UdpSession.MAC_LENGTH;
+    static final int LENGTH_V2 = SIGNED_LENGTH_V2 + UdpSession.MAC_LENGTH;
+
+    private static final int FLAG_INPUT = 0x01;
+    private static final float DIR_SCALE = 32767f;
+
+    private InputDatagram() {
+    }
+
+    static boolean matches(byte[] buf, int length) {
+        return (length == LENGTH && buf[0] == TAG) || (length == LENGTH_V2 && buf[0] == TAG_V2);
+    }
+
+    /**
+     * Number of leading bytes covered by the MAC; the MAC follows them.
+     */
+    static int signedLength(byte[] buf) {
+        return buf[0] == TAG_V2 ? SIGNED_LENGTH_V2 : SIGNED_LENGTH;
+    }
+
+    static int peerId(byte[] buf) {
+        return readInt(buf, 1);
+    }
+
+    static long seq(byte[] buf) {
+        return readInt(buf, 5) & 0xFFFFFFFFL;
+    }
+
+    static boolean hasInput(byte[] buf) {
+        return buf[0] != TAG_V2 || (buf[17] & FLAG_INPUT) != 0;
+    }
+
+    static float dirX(byte[] buf) {
+        return readShort(buf, 9) / DIR_SCALE;
+    }
+
+    static float dirY(byte[] buf) {
+        return readShort(buf, 11) / DIR_SCALE;
+    }
+
+    static long snapshotAck(byte[] buf) {
+        return buf[0] == TAG_V2 ? readInt(buf, 13) & 0xFFFFFFFFL : 0;
+    }
+
+    private static int readInt(byte[] buf, int offset) {
+        return (buf[offset] & 0xFF)
+                | (buf[offset + 1] & 0xFF) << 8
+                | (buf[offset + 2] & 0xFF) << 16
+                | (buf[offset + 3] & 0xFF) << 24;
+    }
+
+    private static short readShort(byte[] buf, int offset) {
+        return (short) ((buf[offset] & 0xFF) | (buf[offset + 1] & 0xFF) << 8);
+    }
+}
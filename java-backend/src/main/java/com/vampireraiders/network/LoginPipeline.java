@@ -0,0 +1,153 @@
+package com.vampireraiders.network;
+
+import com.google.gson.JsonObject;
+import com.vampireraiders.database.DatabaseConnection;
+import com.vampireraiders.util.Logger;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs player joins off the client reader threads on a small fixed pool.
+ *
+ * Login threads use the LOGIN database pool, so a login storm (e.g. after a restart) can't
+ * starve the game's own persistence. Joins beyond the pool wait in a bounded queue and
+ * are told their position ("login_queued") when queued and about once a second after that;
+ * joins beyond the queue are refused with a "server busy" auth_error.
+ */
+class LoginPipeline {
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    private final NetworkManager network;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService progress;
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    LoginPipeline(NetworkManager network, int threads, int queueCapacity) {
+        this.network = network;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(() -> {
+                        DatabaseConnection.bindWorkload(DatabaseConnection.Workload.LOGIN);
+                        r.run();
+                    }, "Login-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "LoginProgress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(this::sendQueuePositions, PROGRESS_INTERVAL_MS, PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a join for the client. Repeated joins while one is pending (or after it succeeded) are ignored.
+     */
+    void submit(GameClient client, Runnable join) {
+        int peerId = client.getPeerId();
+        if (client.isAuthenticated() || !pending.add(peerId)) {
+            Logger.debug("Ignoring duplicate join from PeerID " + peerId);
+            return;
+        }
+
+        LoginTask task = new LoginTask(client, join);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            pending.remove(peerId);
+            rejected.incrementAndGet();
+            Logger.warn("Login queue full, refusing join from PeerID " + peerId);
+            JsonObject error = new JsonObject();
+            error.addProperty("type", "auth_error");
+            error.addProperty("message", "Server busy, please try again shortly");
+            network.sendToClient(client, error.toString());
+            return;
+        }
+
+        int position = positionOf(task);
+        if (position > 0) {
+            sendQueued(client, position);
+        }
+    }
+
+    // 1-based position in the wait queue, or 0 if the task already started
+    private int positionOf(LoginTask task) {
+        int position = 0;
+        for (Runnable queued : executor.getQueue()) {
+            position++;
+            if (queued == task) {
+                return position;
+            }
+        }
+        return 0;
+    }
+
+    private void sendQueuePositions() {
+        int position = 0;
+        for (Runnable queued : executor.getQueue()) {
+            position++;
+            if (queued instanceof LoginTask) {
+                sendQueued(((LoginTask) queued).client, position);
+            }
+        }
+    }
+
+    private void sendQueued(GameClient client, int position) {
+        JsonObject msg = new JsonObject();
+        msg.addProperty("type", "login_queued");
+        msg.addProperty("position", position);
+        network.sendToClient(client, msg.toString());
+    }
+
+    String getStats() {
+        return "active=" + executor.getActiveCount() + ", queued=" + executor.getQueue().size() +
+                ", completed=" + completed.get() + ", rejected=" + rejected.get();
+    }
+
+    void shutdown() {
+        progress.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private class LoginTask implements Runnable {
+        private final GameClient client;
+        private final Runnable join;
+
+        LoginTask(GameClient client, Runnable join) {
+            this.client = client;
+            this.join = join;
+        }
+
+        @Override
+        public void run() {
+            int peerId = client.getPeerId();
+            try {
+                // The client may have given up while waiting in the queue
+                if (!network.isClientConnected(peerId)) {
+                    Logger.debug("Skipping join of disconnected PeerID " + peerId);
+                    return;
+                }
+                join.run();
+                completed.incrementAndGet();
+            } catch (Exception e) {
+                Logger.error("Join failed for PeerID " + peerId, e);
+            } finally {
+                pending.remove(peerId);
+            }
+        }
+    }
+}
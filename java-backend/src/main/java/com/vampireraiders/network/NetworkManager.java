@@ -2,27 +2,35 @@ package com.vampireraiders.network;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.vampireraiders.config.ServerConfig;
 import com.vampireraiders.database.*;
 import com.vampireraiders.game.GameWorld;
 import com.vampireraiders.game.Player;
+import com.vampireraiders.game.PlayerRecord;
+import com.vampireraiders.game.TemplateRegistry;
 import com.vampireraiders.game.Tilemap;
 import com.vampireraiders.game.WorldItem;
-import com.vampireraiders.systems.ModsService;
+import com.vampireraiders.systems.InventoryService;
+import com.vampireraiders.systems.InventoryView;
 import com.vampireraiders.util.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * TCP-based NetworkManager for JSON communication with Godot clients
@@ -32,25 +40,37 @@ public class NetworkManager {
     private final GameWorld gameWorld;
     private final Map<Integer, GameClient> clients = new ConcurrentHashMap<>();
     private final List<NetworkEventListener> listeners = new ArrayList<>();
+    private final InventoryService inventoryService = InventoryService.getInstance();
+    private final LoginPipeline loginPipeline;
     private ServerSocket serverSocket;
     private volatile boolean running = false;
     private int nextPeerId = 1;
     private static final long HEARTBEAT_TIMEOUT = 30000; // 30 seconds
 
     // UDP support for low-latency inputs (hybrid transport)
-    private DatagramSocket udpSocket;
-    private Thread udpThread;
-    private final Map<Integer, InetSocketAddress> udpClients = new ConcurrentHashMap<>();
-    private final Map<Integer, String> udpTokens = new ConcurrentHashMap<>();
-    private final Map<Integer, Long> udpLastSeq = new ConcurrentHashMap<>();
-    private final Map<Integer, TokenBucket> udpBuckets = new ConcurrentHashMap<>();
+    // Several readers can share the port via SO_REUSEPORT; the kernel keeps each peer on one of them
+    private final int udpReaders;
+    private final List<DatagramChannel> udpChannels = new CopyOnWriteArrayList<>();
+    private final Map<Integer, UdpSession> udpSessions = new ConcurrentHashMap<>();
 
     private static final int UDP_INPUT_RATE = 30; // per second
     private static final int UDP_BUCKET_CAPACITY = 60; // burst allowance
+    private static final int UDP_BUFFER_SIZE = 2048;
+    private static final long UDP_SELECT_TIMEOUT_MS = 500;
+    private static final long SNAPSHOT_ACK_TIMEOUT_NANOS = 1_500_000_000L; // fall back to TCP after this
+    private static final long SNAPSHOT_PROBE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final boolean udpSnapshotsEnabled;
+    private final SnapshotChannel snapshotChannel = new SnapshotChannel();
+    private long snapshotProbes; // game loop thread only
 
     public NetworkManager(int port, GameWorld gameWorld) {
         this.port = port;
         this.gameWorld = gameWorld;
+        ServerConfig config = ServerConfig.getInstance();
+        this.loginPipeline = new LoginPipeline(this, config.getLoginThreads(), config.getLoginQueueCapacity());
+        this.udpReaders = Math.max(1, config.getUdpReaders());
+        this.udpSnapshotsEnabled = config.isUdpSnapshotsEnabled();
     }
 
     public void start() throws IOException {
@@ -70,11 +90,8 @@ public class NetworkManager {
         heartbeatThread.setDaemon(true);
         heartbeatThread.start();
 
-        // Start UDP server for low-latency input (same port)
-        udpThread = new Thread(this::runUdpServer);
-        udpThread.setName("UDPServer");
-        udpThread.setDaemon(true);
-        udpThread.start();
+        // Start UDP readers for low-latency input (same port)
+        startUdpReaders();
 
         Logger.info("Server ready for TCP connections");
     }
@@ -150,7 +167,8 @@ public class NetworkManager {
 
         switch (type) {
             case "player_join":
-                handlePlayerJoin(client, message);
+                // Authentication and loading hit the database; keep them off the reader thread
+                loginPipeline.submit(client, () -> handlePlayerJoin(client, message));
                 break;
             case "player_input":
                 handlePlayerInput(client, message);
@@ -203,12 +221,11 @@ public class NetworkManager {
         Player player = gameWorld.getState().getPlayer(client.getPeerId());
         if (player == null) return;
 
-        int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
         long jewelInventoryId = message.get("jewel_inventory_id").getAsLong();
         long targetInventoryId = message.get("target_inventory_id").getAsLong();
 
-        // Delegate to ModsService
-        boolean success = ModsService.applyJewelOfStrength(playerId, jewelInventoryId, targetInventoryId);
+        // Applied to the live inventory aggregate; the upgrade is persisted on the inventory writer
+        boolean success = inventoryService.applyJewel(player, jewelInventoryId, targetInventoryId);
         if (!success) {
             Logger.debug("APPLY_JEWEL: Failed to apply jewel from inventory_id=" + jewelInventoryId + 
                          " to target=" + targetInventoryId);
@@ -224,82 +241,83 @@ public class NetworkManager {
         float[] safeZoneCenter = tilemap.getSafeZoneCenter();
         float safeZoneCenterX = safeZoneCenter[0];
         float safeZoneCenterY = safeZoneCenter[1];
-        
-        // Determine spawn position based on player state
-        float spawnX = safeZoneCenterX;
-        float spawnY = safeZoneCenterY;
-        boolean isNewPlayer = false;
-        
-        // Always create player with current peer ID
-        Player player = new Player(client.getPeerId(), username, spawnX, spawnY);
-        int databaseId = -1;
 
-        // Check if player exists in database and load stats
-        if (PlayerRepository.playerExists(username)) {
-            // Validate credentials
-            if (!PlayerRepository.validateCredentials(username, password)) {
+        // Credentials and saved state come back from one query
+        PlayerRecord record;
+        PlayerRepository.AuthResult auth = PlayerRepository.authenticate(username, password);
+        switch (auth.getStatus()) {
+            case OK:
+                record = auth.getRecord();
+                break;
+            case UNKNOWN_USER:
+                // Create new player in database; new players spawn at the safe zone
+                record = PlayerRepository.createNewPlayer(username, password);
+                if (record == null) {
+                    Logger.error("Failed to create new player " + username);
+                    sendAuthError(client, "Could not create player, please try again");
+                    return;
+                }
+                Logger.info("New player created at safe zone: " + username + " (dbId=" + record.getDatabaseId() + ")");
+                break;
+            case BAD_PASSWORD:
                 Logger.warn("Invalid credentials for user: " + username);
-                JsonObject error = new JsonObject();
-                error.addProperty("type", "auth_error");
-                error.addProperty("message", "Invalid username or password");
-                sendToClient(client, error.toString());
+                sendAuthError(client, "Invalid username or password");
                 return;
-            }
-            
-            Player dbPlayer = PlayerRepository.loadPlayerByUsername(username);
-            if (dbPlayer != null) {
-                // Copy database ID from loaded player
-                databaseId = dbPlayer.getDatabaseId();
-                player.setDatabaseId(databaseId);
-
-                // Load saved stats
-                player.setLevel(dbPlayer.getLevel());
-                player.setXP(dbPlayer.getXP());
-                player.setMaxHealth(dbPlayer.getMaxHealth());
-                player.setHealth(dbPlayer.getHealth());
-
-                // Determine spawn position: safe zone if dead, last position if alive
-                if (player.getHealth() <= 0) {
-                    // Player was dead, respawn at safe zone with full health
-                    player.setHealth(player.getMaxHealth());
-                    player.setPosition(safeZoneCenterX, safeZoneCenterY);
-                    Logger.info("Dead player respawned at safe zone: " + username);
-                } else {
-                    // Player was alive, spawn at last saved position
-                    player.setPosition(dbPlayer.getX(), dbPlayer.getY());
-                    Logger.info("Returning player spawned at last position: " + username + " (" + dbPlayer.getX() + ", " + dbPlayer.getY() + ")");
-                }
-                
-                Logger.info("Existing player found: " + username + " (dbId=" + databaseId + ") - Level: " + player.getLevel() + ", XP: " + player.getXP());
-            }
-        } else {
-            // Create new player in database at safe zone
-            Player newDbPlayer = PlayerRepository.createNewPlayer(username, password);
-            if (newDbPlayer != null) {
-                databaseId = newDbPlayer.getDatabaseId();
-                player.setDatabaseId(databaseId);
-                // New players spawn at safe zone (already set above)
-                player.setPosition(safeZoneCenterX, safeZoneCenterY);
-                isNewPlayer = true;
-            } else {
-                Logger.error("Failed to create new player " + username);
+            default:
+                sendAuthError(client, "Login failed, please try again");
                 return;
+        }
+        int databaseId = record.getDatabaseId();
+
+        // Always create player with current peer ID
+        Player player = new Player(client.getPeerId(), username, safeZoneCenterX, safeZoneCenterY);
+        player.setLevel(record.getLevel());
+        player.setXP(record.getXp());
+        player.setMaxHealth(record.getMaxHealth());
+        player.setHealth(record.getHealth());
+
+        // Determine spawn position: safe zone if dead, last position if alive
+        if (auth.getStatus() == PlayerRepository.AuthStatus.OK) {
+            if (player.getHealth() <= 0) {
+                // Player was dead, respawn at safe zone with full health
+                player.setHealth(player.getMaxHealth());
+                Logger.info("Dead player respawned at safe zone: " + username);
+            } else {
+                // Player was alive, spawn at last saved position
+                player.setPosition(record.getX(), record.getY());
+                Logger.info("Returning player spawned at last position: " + username + " (" + record.getX() + ", " + record.getY() + ")");
             }
-            Logger.info("New player created at safe zone: " + username + " (dbId=" + databaseId + ")");
+            Logger.info("Existing player found: " + username + " (dbId=" + databaseId + ") - Level: " + player.getLevel() + ", XP: " + player.getXP());
         }
 
-        // Update position for spawn and mark authenticated
+        // Update position for spawn
         player.setInputDirection(0, 0);
         player.setMapId("main");
         if (!GameWorld.isWalkable(player.getX(), player.getY(), player.getMapId())) {
             Logger.warn("Spawn position not walkable for " + username + ", resetting to safe zone");
             player.setPosition(safeZoneCenterX, safeZoneCenterY);
         }
+        // Load inventory and equipment once; inventory requests are served from memory afterwards.
+        // This doesn't wait on the inventory writer unless writes of this player's previous session
+        // are still queued. The equipped query also fills the equipped items cache, so setDatabaseId
+        // compiles the stats from it plus one batched item mods lookup
+        inventoryService.load(databaseId);
+        player.setDatabaseId(databaseId);
+
         client.setPlayer(player);
         client.setAuthenticated(true);
         
         // Add player to game world
         gameWorld.getState().addPlayer(client.getPeerId(), player);
+
+        // The join ran on a login thread; if the client dropped meanwhile, its disconnect handling
+        // may have missed this player, so undo the join here
+        if (!isClientConnected(client.getPeerId())) {
+            gameWorld.getState().removePlayer(client.getPeerId());
+            inventoryService.unload(databaseId);
+            Logger.info("Player " + username + " disconnected during join");
+            return;
+        }
         
         Logger.info("Player joined: " + username + " (PeerID: " + client.getPeerId() + ", dbId: " + databaseId + ") - Level: " + player.getLevel() + ", XP: " + player.getXP());
 
@@ -313,17 +331,27 @@ public class NetworkManager {
         ack.addProperty("xp", player.getXP());
         // Issue a per-session UDP token for securing UDP messages
         String udpToken = java.util.UUID.randomUUID().toString();
-        udpTokens.put(client.getPeerId(), udpToken);
+        udpSessions.put(client.getPeerId(), new UdpSession(udpToken, UDP_BUCKET_CAPACITY, UDP_INPUT_RATE));
         ack.addProperty("udp_token", udpToken);
         sendToClient(client, ack.toString());
     }
 
+    private void sendAuthError(GameClient client, String reason) {
+        JsonObject error = new JsonObject();
+        error.addProperty("type", "auth_error");
+        error.addProperty("message", reason);
+        sendToClient(client, error.toString());
+    }
+
     private void handlePlayerInput(GameClient client, JsonObject message) {
         float dirX = message.get("dir_x").getAsFloat();
         float dirY = message.get("dir_y").getAsFloat();
 
+        if (!Float.isFinite(dirX) || !Float.isFinite(dirY)) {
+            return;
+        }
         if (client.getPlayer() != null) {
-            client.getPlayer().setInputDirection(dirX, dirY);
+            client.getPlayer().offerInput(dirX, dirY);
             notifyClientInput(client.getPeerId(), "move", dirX, dirY);
         }
     }
@@ -362,61 +390,31 @@ public class NetworkManager {
             return;
         }
 
-        // Use database ID for claiming (set during player creation or loaded from DB)
-        int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
-        Logger.info("PICKUP: Using playerId=" + playerId + " (database=" + player.getDatabaseId() + ", peer=" + player.getPeerId() + ")");
-        
-        // Check if inventory is full (6 cols x 12 rows = 72 slots max)
-        var inventoryItems = InventoryRepository.getInventoryForPlayer(playerId);
-        var equipped = EquippedItemRepository.getEquippedItems(playerId);
-        if (inventoryItems.size() >= 72 + equipped.size()) {
-            Logger.info("PICKUP: Inventory full for player " + playerId + ", cannot add item");
+        // Served from the player's in-memory inventory; DB writes happen on the inventory writer
+        var itemTemplate = TemplateRegistry.get().getItemTemplate(item.getItemTemplateId());
+        if (itemTemplate == null) {
+            Logger.warn("PICKUP: Unknown item template " + item.getItemTemplateId());
             return;
         }
-        
-        // Get item template info to check if stackable
-        int itemTemplateId = item.getItemTemplateId();
-        var itemTemplate = ItemTemplateRepository.getItemTemplate(itemTemplateId);
-        boolean isStackable = itemTemplate != null && itemTemplate.isStackable();
-        Logger.info("PICKUP: Item template " + itemTemplateId + " is stackable: " + isStackable);
-        
-        // For stackable items, check if we already have this item type
-        if (isStackable) {
-            Long existingInventoryId = InventoryRepository.findExistingStackableItemTemplate(playerId, itemTemplateId);
-            if (existingInventoryId != null) {
-                Logger.info("PICKUP: Found existing stackable item, incrementing quantity for inventory_id=" + existingInventoryId);
-                InventoryRepository.incrementItemQuantity(existingInventoryId);
-                // Delete this world item since we're stacking it (don't need duplicate world_item rows)
-                WorldItemRepository.deleteWorldItem(worldItemId);
-                gameWorld.getState().removeWorldItem(item);
-                Logger.info("PICKUP: Item stacked and deleted from world_items. Pickup complete for item " + worldItemId);
-                return;
-            }
+        if (!inventoryService.canAccept(player, itemTemplate)) {
+            Logger.info("PICKUP: Inventory full for player " + InventoryService.playerIdOf(player) + ", cannot add item");
+            return;
         }
         
-        boolean claimed = WorldItemRepository.claimWorldItem(worldItemId, playerId);
-        Logger.info("PICKUP: Claim result: " + claimed);
-        if (!claimed) {
-            Logger.debug("Pickup failed: item already claimed id=" + worldItemId);
+        // Claim in memory first: only one concurrent pickup can remove the item from the world
+        if (!gameWorld.getState().removeWorldItem(item)) {
+            Logger.debug("Pickup failed: item already taken id=" + worldItemId);
             return;
         }
-
-        // Find next available slot in inventory grid (6 cols x 12 rows)
-        int[] slot = InventoryRepository.findNextAvailableSlot(playerId, 6, 12);
-        int slotX = slot[0];
-        int slotY = slot[1];
-        Logger.info("PICKUP: Found available slot (" + slotX + "," + slotY + ")");
         
-        // Add to inventory at the found slot
-        boolean added = InventoryRepository.addInventoryItem(playerId, worldItemId, slotX, slotY);
-        Logger.info("PICKUP: Add to inventory result: " + added);
-        if (!added) {
-            Logger.error("Failed to add world item to inventory id=" + worldItemId + " player=" + playerId);
+        InventoryService.PickupResult result = inventoryService.pickup(player, item, itemTemplate, gameWorld.getState());
+        if (result == InventoryService.PickupResult.FULL) {
+            gameWorld.getState().addWorldItem(item);
+            Logger.info("PICKUP: Inventory full for player " + InventoryService.playerIdOf(player) + ", cannot add item");
+            return;
         }
-
-        item.setClaimedBy(playerId);
-        gameWorld.getState().removeWorldItem(item);
-        Logger.info("PICKUP: Item removed from world. Pickup complete for item " + worldItemId);
+        item.setClaimedBy(InventoryService.playerIdOf(player));
+        Logger.info("PICKUP: Item " + worldItemId + " " + (result == InventoryService.PickupResult.STACKED ? "stacked" : "added") + ". Pickup complete");
     }
 
     private void handleGetInventory(GameClient client) {
@@ -429,101 +427,26 @@ public class NetworkManager {
         int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
         Logger.info("GET_INVENTORY: Fetching for playerId=" + playerId + " (peer=" + client.getPeerId() + ", dbId=" + player.getDatabaseId() + ")");
         
-        var items = InventoryRepository.getInventoryForPlayer(playerId);
-        Logger.info("GET_INVENTORY: Query returned " + items.size() + " items");
-        
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "inventory");
-
-        var arr = new com.google.gson.JsonArray();
-        for (var row : items) {
-            JsonObject obj = new JsonObject();
-            obj.addProperty("inventory_id", ((Number) row.get("inventory_id")).longValue());
-            obj.addProperty("world_item_id", ((Number) row.get("world_item_id")).longValue());
-            obj.addProperty("item_template_id", ((Number) row.get("item_template_id")).intValue());
-            obj.addProperty("name", (String) row.get("name"));
-            obj.addProperty("type", (String) row.get("type"));
-            obj.addProperty("damage", ((Number) row.get("damage")).intValue());
-            obj.addProperty("defense", ((Number) row.get("defense")).intValue());
-            obj.addProperty("rarity", (String) row.get("rarity"));
-            obj.addProperty("stackable", (Boolean) row.get("stackable"));
-            obj.addProperty("quantity", ((Number) row.get("quantity")).intValue());
-            obj.addProperty("slot_x", ((Number) row.get("slot_x")).intValue());
-            obj.addProperty("slot_y", ((Number) row.get("slot_y")).intValue());
-
-            // Attach mods for client tooltip display
-            long worldItemId = ((Number) row.get("world_item_id")).longValue();
-            var mods = ItemModRepository.getModsForWorldItem(worldItemId);
-            var modsArray = new com.google.gson.JsonArray();
-            for (var m : mods) {
-                JsonObject mObj = new JsonObject();
-                mObj.addProperty("mod_type", (String) m.get("mod_type"));
-                mObj.addProperty("mod_value", ((Number) m.get("mod_value")).intValue());
-                mObj.addProperty("mod_name", (String) m.get("mod_name"));
-                modsArray.add(mObj);
-            }
-            obj.add("mods", modsArray);
-
-            arr.add(obj);
-            Logger.info("  - Item: " + row.get("name") + " at slot (" + row.get("slot_x") + "," + row.get("slot_y") + "), quantity: " + row.get("quantity"));
-        }
-        payload.add("items", arr);
-
-        // Add equipped items
-        var equipped = EquippedItemRepository.getEquippedItems(playerId);
-        JsonObject equippedObj = new JsonObject();
-        for (var entry : equipped.entrySet()) {
-            String slotType = entry.getKey();
-            var item = entry.getValue();
-            JsonObject itemObj = new JsonObject();
-            itemObj.addProperty("inventory_id", ((Number) item.get("inventory_id")).longValue());
-            itemObj.addProperty("world_item_id", ((Number) item.get("world_item_id")).longValue());
-            itemObj.addProperty("item_template_id", ((Number) item.get("item_template_id")).intValue());
-            itemObj.addProperty("name", (String) item.get("name"));
-            itemObj.addProperty("type", (String) item.get("type"));
-            itemObj.addProperty("damage", ((Number) item.get("damage")).intValue());
-            itemObj.addProperty("defense", ((Number) item.get("defense")).intValue());
-            itemObj.addProperty("rarity", (String) item.get("rarity"));
-            itemObj.addProperty("stackable", (Boolean) item.get("stackable"));
-
-            // Attach mods for client tooltip display
-            long worldItemId = ((Number) item.get("world_item_id")).longValue();
-            var mods = ItemModRepository.getModsForWorldItem(worldItemId);
-            var modsArray = new com.google.gson.JsonArray();
-            for (var m : mods) {
-                JsonObject mObj = new JsonObject();
-                mObj.addProperty("mod_type", (String) m.get("mod_type"));
-                mObj.addProperty("mod_value", ((Number) m.get("mod_value")).intValue());
-                mObj.addProperty("mod_name", (String) m.get("mod_name"));
-                modsArray.add(mObj);
-            }
-            itemObj.add("mods", modsArray);
-
-            equippedObj.add(slotType, itemObj);
-            Logger.info("  - Equipped: " + slotType + " = " + item.get("name"));
+        // Let this player's pending writes land so every entry has its persisted ids
+        if (!inventoryService.flush(playerId)) {
+            Logger.warn("GET_INVENTORY: Writes for playerId=" + playerId + " still pending, not sending inventory");
+            return;
         }
-        payload.add("equipped", equippedObj);
-
-        // Add player stats
-        JsonObject playerObj = new JsonObject();
-        playerObj.addProperty("level", player.getLevel());
-        playerObj.addProperty("max_health", player.getMaxHealth());
-        playerObj.addProperty("attack_damage", player.getCachedTotalDamage());
-        playerObj.addProperty("defense", player.getCachedTotalDefense());
-        playerObj.addProperty("move_speed", (int) player.getMoveSpeed());
-        playerObj.addProperty("attack_speed", player.getEquippedAttackSpeed());
-        payload.add("player", playerObj);
+        InventoryView view = InventoryView.build(inventoryService.get(playerId));
+        JsonObject payload = view.toJson(player);
 
-        Logger.info("GET_INVENTORY: Sending " + arr.size() + " items and " + equipped.size() + " equipped items to client");
+        Logger.info("GET_INVENTORY: Sending " + view.getItems().size() + " items and " + view.getEquipped().size() + " equipped items to client");
         sendToClient(client, payload.toString());
     }
 
     private void handleMoveInventoryItem(GameClient client, JsonObject message) {
         if (!message.has("inventory_id") || !message.has("slot_x") || !message.has("slot_y")) return;
+        Player player = gameWorld.getState().getPlayer(client.getPeerId());
+        if (player == null) return;
         long inventoryId = message.get("inventory_id").getAsLong();
         int slotX = message.get("slot_x").getAsInt();
         int slotY = message.get("slot_y").getAsInt();
-        boolean ok = InventoryRepository.moveInventoryItem(inventoryId, slotX, slotY);
+        boolean ok = inventoryService.move(player, inventoryId, slotX, slotY);
         if (!ok) Logger.debug("Move inventory failed id=" + inventoryId);
     }
 
@@ -533,62 +456,13 @@ public class NetworkManager {
         if (player == null) return;
         
         long inventoryId = message.get("inventory_id").getAsLong();
-        Long worldItemId = InventoryRepository.getWorldItemIdForInventory(inventoryId);
-        if (worldItemId == null) return;
-        
-        // Get the quantity before deleting
-        int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
-        var inventoryItems = InventoryRepository.getInventoryForPlayer(playerId);
-        int quantity = 1;
-        for (var item : inventoryItems) {
-            if (((Number) item.get("inventory_id")).longValue() == inventoryId) {
-                quantity = ((Number) item.get("quantity")).intValue();
-                break;
-            }
-        }
-        
-        Logger.info("DROP: Dropping inventory_id=" + inventoryId + " with quantity=" + quantity);
-        
-        if (quantity > 1) {
-            // For stacked items, only drop 1 and decrement the stack
-            InventoryRepository.decrementItemQuantity(inventoryId);
-            Logger.info("DROP: Decremented quantity, " + (quantity - 1) + " items remain in inventory");
-            
-            // Create a new world item for the dropped item
-            int templateId = -1;
-            var info = WorldItemRepository.getWorldItemInfo(worldItemId);
-            if (info != null) {
-                templateId = ((Number) info.get("item_template_id")).intValue();
-                String name = (String) info.get("name");
-                String type = (String) info.get("type");
-                long newWorldItemId = WorldItemRepository.createWorldItemAndGetId(templateId, player.getX(), player.getY());
-                if (newWorldItemId > 0) {
-                    WorldItem wi = new WorldItem(newWorldItemId, templateId, player.getX(), player.getY(), null);
-                    wi.setTemplateName(name);
-                    wi.setItemType(type);
-                    wi.setHasMods(false);
-                    gameWorld.getState().addWorldItem(wi);
-                    Logger.info("DROP: Created new world item " + newWorldItemId + " for dropped item");
-                }
-            }
-        } else {
-            // For non-stacked items or last item in stack, delete from inventory and unclaim
-            InventoryRepository.deleteInventoryItem(inventoryId);
-            boolean ok = WorldItemRepository.unclaimWorldItem(worldItemId, player.getX(), player.getY());
-            if (!ok) return;
-            
-            var info = WorldItemRepository.getWorldItemInfo(worldItemId);
-            if (info != null) {
-                int templateId = ((Number) info.get("item_template_id")).intValue();
-                String name = (String) info.get("name");
-                String type = (String) info.get("type");
-                WorldItem wi = new WorldItem(worldItemId, templateId, player.getX(), player.getY(), null);
-                wi.setTemplateName(name);
-                wi.setItemType(type);
-                wi.setHasMods(ItemModRepository.hasModsForWorldItem(worldItemId));
-                gameWorld.getState().addWorldItem(wi);
-            }
+        WorldItem dropped = inventoryService.drop(player, inventoryId);
+        if (dropped == null) {
+            Logger.debug("DROP: Unknown inventory_id=" + inventoryId + " for peer " + client.getPeerId());
+            return;
         }
+        gameWorld.getState().addWorldItem(dropped);
+        Logger.info("DROP: Dropped inventory_id=" + inventoryId + " as world item " + dropped.getId());
     }
 
     private void handleEquipItem(GameClient client, JsonObject message) {
@@ -610,11 +484,10 @@ public class NetworkManager {
             }
         }
         
-        boolean ok = EquippedItemRepository.equipItem(playerId, inventoryId, slotType);
+        // The player's stat cache is refreshed by the inventory writer once the slot is persisted
+        boolean ok = inventoryService.equip(player, inventoryId, slotType);
         if (ok) {
             Logger.info("EQUIP: Player " + playerId + " equipped item " + inventoryId + " to slot " + slotType);
-                // Refresh player's equipped items cache
-                player.refreshEquippedItemsCache();
         }
     }
 
@@ -627,20 +500,20 @@ public class NetworkManager {
         int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
         String slotType = message.get("slot_type").getAsString();
         
-        boolean ok = EquippedItemRepository.unequipItem(playerId, slotType);
+        boolean ok = inventoryService.unequip(player, slotType);
         if (ok) {
             Logger.info("UNEQUIP: Player " + playerId + " unequipped item from slot " + slotType);
-                // Refresh player's equipped items cache
-                player.refreshEquippedItemsCache();
         }
     }
 
     private void handleClientDisconnect(int peerId) {
         GameClient client = clients.remove(peerId);
+        udpSessions.remove(peerId);
         if (client != null) {
             // Save player state on disconnect
             if (client.getPlayer() != null) {
                 PlayerRepository.savePlayer(client.getPlayer());
+                inventoryService.unload(InventoryService.playerIdOf(client.getPlayer()));
                 Logger.info("Saved player " + client.getPlayer().getUsername() + " on disconnect");
             }
             notifyClientDisconnected(peerId);
@@ -663,6 +536,7 @@ public class NetworkManager {
 
                 for (int peerId : disconnected) {
                     clients.remove(peerId);
+                    udpSessions.remove(peerId);
                     notifyClientDisconnected(peerId);
                     Logger.info("Client disconnected (timeout): PeerID " + peerId);
                 }
@@ -680,6 +554,41 @@ public class NetworkManager {
         }
     }
 
+    /**
+     * Send a game_state frame: over the UDP snapshot channel if the client asked for it and is
+     * acking, otherwise (or if the frame is too large or the UDP send buffer is full) over TCP.
+     * Reliable messages (auth, inventory, ...) always use sendToClient.
+     * Game loop thread only.
+     */
+    public void sendGameState(GameClient client, GameStateFrame frame) {
+        UdpSession session = udpSnapshotsEnabled ? udpSessions.get(client.getPeerId()) : null;
+        if (session != null) {
+            long now = System.nanoTime();
+            if (session.snapshotsOverUdp(now, SNAPSHOT_ACK_TIMEOUT_NANOS)) {
+                if (sendSnapshot(session, frame)) {
+                    return;
+                }
+            } else if (session.shouldProbe(now, SNAPSHOT_PROBE_INTERVAL_NANOS)) {
+                sendSnapshot(session, frame);
+                snapshotProbes++;
+            }
+        }
+        sendToClient(client, frame.getText());
+    }
+
+    private boolean sendSnapshot(UdpSession session, GameStateFrame frame) {
+        InetSocketAddress address = session.getAddress();
+        if (udpChannels.isEmpty() || address == null) {
+            return false;
+        }
+        return snapshotChannel.send(udpChannels.get(0), address, session.nextSnapshotSeq(), frame.getUtf8());
+    }
+
+    public String getSnapshotStats() {
+        return (udpSnapshotsEnabled ? "" : "disabled, ") + snapshotChannel.getStats() +
+                ", probes=" + snapshotProbes;
+    }
+
     public void broadcastMessage(String message, int exceptPeerId) {
         for (GameClient client : clients.values()) {
             if (client.getPeerId() != exceptPeerId) {
@@ -696,12 +605,13 @@ public class NetworkManager {
 
     public void stop() {
         running = false;
+        loginPipeline.shutdown();
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
-            if (udpSocket != null && !udpSocket.isClosed()) {
-                udpSocket.close();
+            for (DatagramChannel channel : udpChannels) {
+                channel.close();
             }
         } catch (IOException e) {
             Logger.error("Error closing server socket", e);
@@ -745,192 +655,205 @@ public class NetworkManager {
         return clients.size();
     }
 
+    boolean isClientConnected(int peerId) {
+        return clients.containsKey(peerId);
+    }
+
+    public String getLoginStats() {
+        return loginPipeline.getStats();
+    }
+
     // =========================
     // UDP SERVER (INPUT CHANNEL)
     // =========================
-    private void runUdpServer() {
+    private void startUdpReaders() {
+        int readers = udpReaders;
         try {
-            udpSocket = new DatagramSocket(port);
-            Logger.info("UDP Server started on port " + port);
-
-            byte[] buffer = new byte[2048];
-            while (running) {
-                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-                try {
-                    udpSocket.receive(packet);
-                } catch (IOException se) {
-                    if (!running) break; // socket closed during stop()
-                    Logger.error("UDP receive error: " + se.getMessage());
-                    continue;
+            for (int i = 0; i < readers; i++) {
+                DatagramChannel channel = DatagramChannel.open();
+                if (readers > 1) {
+                    if (channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                        channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                    } else {
+                        Logger.warn("SO_REUSEPORT is not supported here, using a single UDP reader");
+                        readers = 1;
+                    }
                 }
+                channel.bind(new InetSocketAddress(port));
+                // Non-blocking so snapshot sends from the game loop never wait for socket buffer space
+                channel.configureBlocking(false);
+                udpChannels.add(channel);
+
+                Thread reader = new Thread(() -> runUdpReader(channel));
+                reader.setName("UDPReader-" + (i + 1));
+                reader.setDaemon(true);
+                reader.start();
+            }
+            Logger.info("UDP Server started on port " + port + " (" + udpChannels.size() + " reader(s))");
+        } catch (IOException e) {
+            Logger.error("Failed to start UDP server on port " + port + ": " + e.getMessage());
+        }
+    }
 
-                String data = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8).trim();
-                if (data.isEmpty()) continue;
-
+    // One reader thread: waits on a selector, receives into a direct buffer and copies each
+    // datagram into a reused array
+    private void runUdpReader(DatagramChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(UDP_BUFFER_SIZE);
+        byte[] data = new byte[UDP_BUFFER_SIZE];
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_READ);
+            while (running) {
                 try {
-                    JsonObject message = JsonParser.parseString(data).getAsJsonObject();
-                    String type = message.has("type") ? message.get("type").getAsString() : null;
-                    if (type == null) continue;
-
-                    switch (type) {
-                        case "register_udp": {
-                            if (!message.has("peer_id") || !message.has("token") || !message.has("seq") || !message.has("hmac")) break;
-                            int pid = message.get("peer_id").getAsInt();
-                            String token = message.get("token").getAsString();
-                            String expected = udpTokens.get(pid);
-                            if (expected == null || !expected.equals(token)) {
-                                Logger.debug("UDP register rejected for peer " + pid + ": invalid token");
-                                break;
-                            }
-                            long seq = message.get("seq").getAsLong();
-                            String hmac = message.get("hmac").getAsString();
-                            if (!validateHmac(expected, type, pid, null, null, seq, hmac)) {
-                                Logger.debug("UDP register rejected for peer " + pid + ": bad hmac");
-                                break;
-                            }
-                            if (isReplay(pid, seq)) {
-                                Logger.debug("UDP register replay detected for peer " + pid + " seq=" + seq);
-                                break;
-                            }
-                            InetSocketAddress addr = new InetSocketAddress(packet.getAddress(), packet.getPort());
-                            udpClients.put(pid, addr);
-                            udpBuckets.put(pid, new TokenBucket(UDP_BUCKET_CAPACITY, UDP_INPUT_RATE));
-                            Logger.info("UDP registered for peer " + pid + " @ " + addr);
-                            break;
-                        }
-                        case "player_input": {
-                            if (!message.has("peer_id") || !message.has("dir_x") || !message.has("dir_y") || !message.has("token") || !message.has("seq") || !message.has("hmac")) break;
-                            int pid = message.get("peer_id").getAsInt();
-                            String token = message.get("token").getAsString();
-                            String expected = udpTokens.get(pid);
-                            if (expected == null || !expected.equals(token)) {
-                                Logger.debug("UDP input rejected for peer " + pid + ": invalid token");
-                                break;
-                            }
-                            long seq = message.get("seq").getAsLong();
-                            String hmac = message.get("hmac").getAsString();
-                            Integer dx_i = message.has("dx_i") ? message.get("dx_i").getAsInt() : null;
-                            Integer dy_i = message.has("dy_i") ? message.get("dy_i").getAsInt() : null;
-                            if (!validateHmac(expected, type, pid, dx_i, dy_i, seq, hmac)) {
-                                Logger.debug("UDP input rejected for peer " + pid + ": bad hmac");
-                                break;
-                            }
-                            if (isReplay(pid, seq)) {
-                                Logger.debug("UDP input replay detected for peer " + pid + " seq=" + seq);
-                                break;
-                            }
-
-                            // Rate limit
-                            TokenBucket bucket = udpBuckets.computeIfAbsent(pid, k -> new TokenBucket(UDP_BUCKET_CAPACITY, UDP_INPUT_RATE));
-                            if (!bucket.tryConsume()) {
-                                Logger.debug("UDP input rate limited for peer " + pid);
-                                break;
-                            }
-
-                            float dx = message.get("dir_x").getAsFloat();
-                            float dy = message.get("dir_y").getAsFloat();
-
-                            // Sanity checks: clamp vector length to <= 1 and ignore NaNs/Infs
-                            if (!Float.isFinite(dx) || !Float.isFinite(dy)) {
-                                break;
-                            }
-                            float len = (float)Math.sqrt(dx * dx + dy * dy);
-                            if (len > 1.0f && len > 0.0f) {
-                                dx /= len;
-                                dy /= len;
-                            }
-
-                            GameClient client = clients.get(pid);
-                            if (client != null && client.getPlayer() != null) {
-                                client.getPlayer().setInputDirection(dx, dy);
-                                client.updateHeartbeat();
-                                notifyClientInput(pid, "move", dx, dy);
-                            }
-                            break;
-                        }
-                        default:
-                            // Ignore other UDP message types for now
-                            break;
+                    // Timeout so a stop() that closes the channel is noticed
+                    selector.select(UDP_SELECT_TIMEOUT_MS);
+                    selector.selectedKeys().clear();
+                    SocketAddress from;
+                    while (true) {
+                        buffer.clear();
+                        from = channel.receive(buffer);
+                        if (from == null) break;
+                        buffer.flip();
+                        int length = buffer.remaining();
+                        buffer.get(data, 0, length);
+                        handleUdpDatagram(data, length, (InetSocketAddress) from);
                     }
-                } catch (Exception ex) {
-                    Logger.debug("Invalid UDP message: " + ex.getMessage());
+                } catch (ClosedChannelException e) {
+                    break; // closed during stop()
+                } catch (IOException e) {
+                    if (!running) break;
+                    Logger.error("UDP receive error: " + e.getMessage());
                 }
             }
         } catch (IOException e) {
             if (running) {
-                Logger.error("Failed to start UDP server on port " + port + ": " + e.getMessage());
+                Logger.error("UDP reader failed: " + e.getMessage());
             }
         }
     }
 
-    private boolean isReplay(int peerId, long seq) {
-        Long last = udpLastSeq.get(peerId);
-        if (last != null && seq <= last) {
-            return true;
+    private void handleUdpDatagram(byte[] buffer, int length, InetSocketAddress from) {
+        if (InputDatagram.matches(buffer, length)) {
+            handleBinaryInput(buffer);
+            return;
         }
-        udpLastSeq.put(peerId, seq);
-        return false;
-    }
 
-    private boolean validateHmac(String token, String type, int peerId, Integer dx_i, Integer dy_i, long seq, String providedHex) {
+        String data = new String(buffer, 0, length, StandardCharsets.UTF_8).trim();
+        if (data.isEmpty()) return;
+
         try {
-            StringBuilder sb = new StringBuilder();
-            sb.append(type).append('|').append(peerId).append('|').append(seq);
-            if (dx_i != null && dy_i != null) {
-                sb.append('|').append(dx_i).append('|').append(dy_i);
+            JsonObject message = JsonParser.parseString(data).getAsJsonObject();
+            String type = message.has("type") ? message.get("type").getAsString() : null;
+            if (type == null) return;
+
+            switch (type) {
+                case "register_udp": {
+                    if (!message.has("peer_id") || !message.has("token") || !message.has("seq") || !message.has("hmac")) break;
+                    int pid = message.get("peer_id").getAsInt();
+                    UdpSession session = udpSessions.get(pid);
+                    if (session == null || !session.tokenMatches(message.get("token").getAsString())) {
+                        Logger.debug("UDP register rejected for peer {}: invalid token", pid);
+                        break;
+                    }
+                    long seq = message.get("seq").getAsLong();
+                    String hmac = message.get("hmac").getAsString();
+                    if (!session.verifyHex(type + "|" + pid + "|" + seq, hmac)) {
+                        Logger.debug("UDP register rejected for peer {}: bad hmac", pid);
+                        break;
+                    }
+                    if (!session.acceptSeq(seq)) {
+                        Logger.debug("UDP register replay detected for peer {} seq={}", pid, seq);
+                        break;
+                    }
+                    boolean snapshots = message.has("snapshots") && message.get("snapshots").getAsBoolean();
+                    session.register(from, UDP_BUCKET_CAPACITY, UDP_INPUT_RATE, snapshots);
+                    Logger.info("UDP registered for peer " + pid + " @ " + from + (snapshots ? " (snapshots)" : ""));
+                    break;
+                }
+                case "player_input": {
+                    // JSON fallback for clients that don't send the binary InputDatagram
+                    if (!message.has("peer_id") || !message.has("dir_x") || !message.has("dir_y") || !message.has("token") || !message.has("seq") || !message.has("hmac")) break;
+                    int pid = message.get("peer_id").getAsInt();
+                    UdpSession session = udpSessions.get(pid);
+                    if (session == null || !session.tokenMatches(message.get("token").getAsString())) {
+                        Logger.debug("UDP input rejected for peer {}: invalid token", pid);
+                        break;
+                    }
+                    long seq = message.get("seq").getAsLong();
+                    String hmac = message.get("hmac").getAsString();
+                    String signed = type + "|" + pid + "|" + seq;
+                    if (message.has("dx_i") && message.has("dy_i")) {
+                        signed += "|" + message.get("dx_i").getAsInt() + "|" + message.get("dy_i").getAsInt();
+                    }
+                    if (!session.verifyHex(signed, hmac)) {
+                        Logger.debug("UDP input rejected for peer {}: bad hmac", pid);
+                        break;
+                    }
+                    if (!session.acceptSeq(seq)) {
+                        Logger.debug("UDP input replay detected for peer {} seq={}", pid, seq);
+                        break;
+                    }
+                    applyUdpInput(session, pid, message.get("dir_x").getAsFloat(), message.get("dir_y").getAsFloat());
+                    break;
+                }
+                default:
+                    // Ignore other UDP message types for now
+                    break;
             }
-            String data = sb.toString();
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] out = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            String expectedHex = bytesToHex(out);
-            return expectedHex.equalsIgnoreCase(providedHex);
-        } catch (Exception e) {
-            Logger.error("HMAC validation error", e);
-            return false;
+        } catch (Exception ex) {
+            Logger.debug("Invalid UDP message: {}", ex.getMessage());
         }
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        char[] hexArray = "0123456789abcdef".toCharArray();
-        char[] hexChars = new char[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+    // Binary movement input / snapshot ack (see InputDatagram); verified in place without allocating
+    private void handleBinaryInput(byte[] buf) {
+        int pid = InputDatagram.peerId(buf);
+        UdpSession session = udpSessions.get(pid);
+        if (session == null) {
+            return;
+        }
+        int signedLength = InputDatagram.signedLength(buf);
+        if (!session.verify(buf, signedLength, signedLength)) {
+            Logger.debug("UDP input rejected for peer {}: bad hmac", pid);
+            return;
+        }
+        if (!session.acceptSeq(InputDatagram.seq(buf))) {
+            Logger.debug("UDP input replay detected for peer {}", pid);
+            return;
+        }
+        session.onSnapshotAck(InputDatagram.snapshotAck(buf));
+        if (InputDatagram.hasInput(buf)) {
+            applyUdpInput(session, pid, InputDatagram.dirX(buf), InputDatagram.dirY(buf));
+        } else {
+            // Ack-only keepalive (e.g. while dead or idle)
+            GameClient client = clients.get(pid);
+            if (client != null) {
+                client.updateHeartbeat();
+            }
         }
-        return new String(hexChars);
     }
 
-    private static class TokenBucket {
-        private final int capacity;
-        private final int ratePerSec;
-        private double tokens;
-        private long lastRefillNanos;
-
-        TokenBucket(int capacity, int ratePerSec) {
-            this.capacity = capacity;
-            this.ratePerSec = ratePerSec;
-            this.tokens = capacity;
-            this.lastRefillNanos = System.nanoTime();
+    private void applyUdpInput(UdpSession session, int pid, float dx, float dy) {
+        // Rate limit
+        if (!session.tryConsumeInput()) {
+            Logger.debug("UDP input rate limited for peer {}", pid);
+            return;
         }
 
-        synchronized boolean tryConsume() {
-            refill();
-            if (tokens >= 1.0) {
-                tokens -= 1.0;
-                return true;
-            }
-            return false;
+        // Sanity checks: clamp vector length to <= 1 and ignore NaNs/Infs
+        if (!Float.isFinite(dx) || !Float.isFinite(dy)) {
+            return;
+        }
+        float len = (float)Math.sqrt(dx * dx + dy * dy);
+        if (len > 1.0f && len > 0.0f) {
+            dx /= len;
+            dy /= len;
         }
 
-        private void refill() {
-            long now = System.nanoTime();
-            double elapsedSec = (now - lastRefillNanos) / 1_000_000_000.0;
-            if (elapsedSec > 0) {
-                tokens = Math.min(capacity, tokens + elapsedSec * ratePerSec);
-                lastRefillNanos = now;
-            }
+        GameClient client = clients.get(pid);
+        if (client != null && client.getPlayer() != null) {
+            client.getPlayer().offerInput(dx, dy);
+            client.updateHeartbeat();
+            notifyClientInput(pid, "move", dx, dy);
         }
     }
 }
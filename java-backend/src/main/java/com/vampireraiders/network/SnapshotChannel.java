@@ -0,0 +1,81 @@
+package com.vampireraiders.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Server -> client game_state frames over UDP, for clients that asked for it in register_udp.
+ *
+ * Each frame gets a snapshot seq and is split into datagrams of at most MAX_DATAGRAM bytes
+ * (little-endian, like InputDatagram):
+ *
+ *   [0]    0xC1
+ *   [1..4] snapshot seq (uint32)
+ *   [5..6] fragment index (uint16)
+ *   [7..8] fragment count (uint16)
+ *   [9..]  slice of the UTF-8 JSON frame
+ *
+ * Delivery is unreliable: the client drops a snapshot if any fragment is lost, ignores ones older
+ * than the last it completed, and acks the latest complete seq in its input datagrams.
+ * The channel is non-blocking: if the socket buffer is full the rest of the snapshot is dropped
+ * (and counted) instead of stalling the tick. Game loop thread only (one reused send buffer).
+ */
+final class SnapshotChannel {
+    static final byte TAG = (byte) 0xC1;
+    // Below the usual 1280-1500 byte path MTU once IP/UDP headers are added
+    static final int MAX_DATAGRAM = 1200;
+    static final int HEADER_LENGTH = 9;
+    static final int MAX_PAYLOAD = MAX_DATAGRAM - HEADER_LENGTH;
+    // Larger frames go over TCP; losing any one of this many fragments already drops the snapshot
+    static final int MAX_FRAGMENTS = 64;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM).order(ByteOrder.LITTLE_ENDIAN);
+    private long snapshotsSent;
+    private long datagramsSent;
+    private long oversized;
+    private long sendFailures;
+    private long droppedDatagrams;
+
+    /**
+     * Send one frame. Returns false if it is too large or could not be sent; the caller then uses TCP.
+     */
+    boolean send(DatagramChannel channel, InetSocketAddress to, long seq, byte[] frame) {
+        int count = Math.max(1, (frame.length + MAX_PAYLOAD - 1) / MAX_PAYLOAD);
+        if (count > MAX_FRAGMENTS) {
+            oversized++;
+            return false;
+        }
+        try {
+            for (int index = 0; index < count; index++) {
+                int offset = index * MAX_PAYLOAD;
+                int length = Math.min(MAX_PAYLOAD, frame.length - offset);
+                buffer.clear();
+                buffer.put(TAG)
+                      .putInt((int) seq)
+                      .putShort((short) index)
+                      .putShort((short) count)
+                      .put(frame, offset, length);
+                buffer.flip();
+                if (channel.send(buffer, to) == 0) {
+                    // Socket buffer full; the snapshot can't complete without this fragment
+                    droppedDatagrams += count - index;
+                    return false;
+                }
+                datagramsSent++;
+            }
+        } catch (IOException e) {
+            sendFailures++;
+            return false;
+        }
+        snapshotsSent++;
+        return true;
+    }
+
+    String getStats() {
+        return "snapshots=" + snapshotsSent + ", datagrams=" + datagramsSent +
+                ", dropped=" + droppedDatagrams + ", oversized=" + oversized + ", sendFailures=" + sendFailures;
+    }
+}
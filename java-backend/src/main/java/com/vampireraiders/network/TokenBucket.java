@@ -0,0 +1,36 @@
+package com.vampireraiders.network;
+
+/**
+ * Token bucket rate limiter (capacity = burst, refilled at ratePerSec).
+ */
+class TokenBucket {
+    private final int capacity;
+    private final int ratePerSec;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(int capacity, int ratePerSec) {
+        this.capacity = capacity;
+        this.ratePerSec = ratePerSec;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    synchronized boolean tryConsume() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSec = (now - lastRefillNanos) / 1_000_000_000.0;
+        if (elapsedSec > 0) {
+            tokens = Math.min(capacity, tokens + elapsedSec * ratePerSec);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.vampireraiders.network;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * UDP state of one joined player: the token issued in player_joined, a Mac keyed with it once,
+ * the last accepted sequence number, the input rate limit and the snapshot channel state.
+ *
+ * Verification reuses the Mac and a scratch buffer, so checking a binary input datagram does
+ * not allocate. MAC comparisons are constant-time.
+ */
+final class UdpSession {
+    static final int MAC_LENGTH = 16;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final String token;
+    private final Mac mac;
+    private final byte[] digest;
+    private long lastSeq = 0;
+    private volatile TokenBucket bucket;
+    private volatile InetSocketAddress address;
+
+    // Snapshot channel: used while the client keeps acking newer snapshots
+    private volatile boolean snapshotsRequested;
+    private volatile long lastAckNanos;
+    private long ackedSnapshot;          // guarded by this
+    private long nextSnapshotSeq = 1;    // game loop thread only
+    private long lastProbeNanos;         // game loop thread only
+
+    UdpSession(String token, int bucketCapacity, int inputRate) {
+        this.token = token;
+        try {
+            this.mac = Mac.getInstance(ALGORITHM);
+            this.mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            // Every Java runtime ships HmacSHA256
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+        this.digest = new byte[mac.getMacLength()];
+        this.bucket = new TokenBucket(bucketCapacity, inputRate);
+    }
+
+    boolean tokenMatches(String provided) {
+        return provided != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), provided.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check the truncated MAC at buf[macOffset..] against HMAC(token, buf[0..signedLength)).
+     */
+    synchronized boolean verify(byte[] buf, int signedLength, int macOffset) {
+        mac.update(buf, 0, signedLength);
+        try {
+            mac.doFinal(digest, 0);
+        } catch (ShortBufferException e) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= digest[i] ^ buf[macOffset + i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * JSON fallback: check a full hex-encoded MAC over the canonical "type|peer|seq[|dx|dy]" string.
+     */
+    synchronized boolean verifyHex(String signed, String providedHex) {
+        if (providedHex == null || providedHex.length() != digest.length * 2) {
+            return false;
+        }
+        mac.update(signed.getBytes(StandardCharsets.UTF_8));
+        try {
+            mac.doFinal(digest, 0);
+        } catch (ShortBufferException e) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < digest.length; i++) {
+            int hi = Character.digit(providedHex.charAt(i * 2), 16);
+            int lo = Character.digit(providedHex.charAt(i * 2 + 1), 16);
+            diff |= (hi | lo) >>> 31; // -1 for a non-hex digit
+            diff |= (digest[i] & 0xFF) ^ ((hi << 4 | lo) & 0xFF);
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Accept a sequence number only if it is newer than every one accepted before (replay guard).
+     */
+    synchronized boolean acceptSeq(long seq) {
+        if (seq <= lastSeq) {
+            return false;
+        }
+        lastSeq = seq;
+        return true;
+    }
+
+    void register(InetSocketAddress address, int bucketCapacity, int inputRate, boolean snapshots) {
+        this.bucket = new TokenBucket(bucketCapacity, inputRate);
+        // Counts as an ack, so the first snapshots go over UDP
+        this.lastAckNanos = System.nanoTime();
+        this.snapshotsRequested = snapshots;
+        this.address = address;
+    }
+
+    /**
+     * Record the client's latest complete snapshot. Only an advancing ack shows the path works.
+     */
+    synchronized void onSnapshotAck(long seq) {
+        if (seq > ackedSnapshot) {
+            ackedSnapshot = seq;
+            lastAckNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * True if snapshots should go over UDP: the client asked for them and acked one within the timeout.
+     */
+    boolean snapshotsOverUdp(long nowNanos, long ackTimeoutNanos) {
+        return snapshotsRequested && address != null && nowNanos - lastAckNanos < ackTimeoutNanos;
+    }
+
+    /**
+     * While snapshots fall back to TCP, true about once per interval to also send one over UDP;
+     * an ack for it switches the client back.
+     */
+    boolean shouldProbe(long nowNanos, long probeIntervalNanos) {
+        if (!snapshotsRequested || address == null || nowNanos - lastProbeNanos < probeIntervalNanos) {
+            return false;
+        }
+        lastProbeNanos = nowNanos;
+        return true;
+    }
+
+    long nextSnapshotSeq() {
+        return nextSnapshotSeq++;
+    }
+
+    boolean tryConsumeInput() {
+        return bucket.tryConsume();
+    }
+
+    InetSocketAddress getAddress() {
+        return address;
+    }
+}
@@ -1,13 +1,8 @@
 package com.vampireraiders.systems;
 
-import com.vampireraiders.database.EquippedItemRepository;
-import com.vampireraiders.database.InventoryRepository;
-import com.vampireraiders.database.ItemModRepository;
-import com.vampireraiders.database.WorldItemRepository;
 import com.vampireraiders.game.*;
 import com.vampireraiders.util.Logger;
 
-import java.util.Map;
 import java.util.Random;
 
 public class CombatSystem {
@@ -15,6 +10,9 @@ public class CombatSystem {
     // Telegraph hitbox dimensions (width side-to-side, depth forward from enemy)
     private static final float TELEGRAPH_WIDTH = 48f;
     private static final float TELEGRAPH_DEPTH = 96f;
+    // Per-hit / per-kill events are sampled: at most one line per second each
+    private static final Logger.Sampler TELEGRAPH_HIT_LOG = Logger.sampler(1000);
+    private static final Logger.Sampler KILL_LOG = Logger.sampler(1000);
     private final ItemDropService itemDropService = new ItemDropService();
     private StateSync stateSync;
 
@@ -36,6 +34,7 @@ public class CombatSystem {
 
             for (Enemy enemy : state.getAllEnemies()) {
                 if (!enemy.isAlive()) continue;
+                if (enemy.getLodTier() == Enemy.LodTier.DORMANT) continue;
                 if (!enemy.getMapId().equals(player.getMapId())) continue;
 
                 float distance = calculateDistance(player.getX(), player.getY(), 
@@ -57,14 +56,17 @@ public class CombatSystem {
                     if (inside) {
                         // Apply damage
                         int enemyDamage = enemy.getDamage();
-                        int playerDefense = calculatePlayerDefense(player);
+                        int playerDefense = player.getCombatStats().getTotalDefense();
                         int effectiveDamage = Math.max(1, enemyDamage - playerDefense);
                         player.takeDamage(effectiveDamage);
-                        Logger.info("Player " + player.getUsername() + " took " + effectiveDamage + " damage from telegraph attack (base: " + enemyDamage + ", defense: " + playerDefense + ")");
+                        if (Logger.isDebugEnabled() && TELEGRAPH_HIT_LOG.sample()) {
+                            Logger.debug("Player {} took {} damage from telegraph attack (base: {}, defense: {}; +{} similar)",
+                                    player.getUsername(), effectiveDamage, enemyDamage, playerDefense, TELEGRAPH_HIT_LOG.drainSuppressed());
+                        }
 
-                        // Broadcast damage event for client-side visual feedback
+                        // Queue damage event for client-side visual feedback (sent with the next game_state)
                         if (stateSync != null) {
-                            stateSync.broadcastDamageEvent(player.getPeerId(), "player", effectiveDamage, player.getX(), player.getY(), player.getMapId());
+                            stateSync.queueDamageEvent(player.getPeerId(), "player", effectiveDamage, player.getX(), player.getY(), player.getMapId());
                         }
 
                         if (!player.isAlive()) {
@@ -98,25 +100,12 @@ public class CombatSystem {
         if (!enemy.isAlive()) return;
 
         enemy.takeDamage(damage);
-        Logger.debug("Enemy " + enemy.getId() + " took " + damage + " damage");
 
         if (!enemy.isAlive()) {
-            Logger.info("[FREEZE_DEBUG] Enemy " + enemy.getId() + " died, starting death sequence");
-            
             enemy.die();  // Mark death time for respawn
-            Logger.info("[FREEZE_DEBUG] Enemy death time marked");
-            
-            Logger.info("[FREEZE_DEBUG] About to remove enemy from active list");
             state.removeEnemy(enemy);  // Remove from active list immediately
-            Logger.info("[FREEZE_DEBUG] Enemy removed from active list");
-            
-            Logger.info("[FREEZE_DEBUG] About to add enemy to respawn queue");
             state.addDeadEnemy(enemy);  // Add to respawn queue
-            Logger.info("[FREEZE_DEBUG] Enemy added to respawn queue");
-            
-            Logger.info("[FREEZE_DEBUG] About to call rewardKiller");
             rewardKiller(state, enemy);
-            Logger.info("[FREEZE_DEBUG] rewardKiller complete, death sequence finished");
         }
     }
     
@@ -158,23 +147,28 @@ public class CombatSystem {
 
         if (nearestPlayer != null && closestDistance < 500f) {
             nearestPlayer.gainXP(xpReward);
-            Logger.info("Player " + nearestPlayer.getUsername() + " gained " + xpReward + " XP from enemy kill (type: " + enemy.getTemplateName() + "). Total XP: " + nearestPlayer.getXP() + ", Level: " + nearestPlayer.getLevel());
-        } else {
-            Logger.debug("Enemy " + enemy.getId() + " defeated but no player nearby to reward XP");
+            if (Logger.isDebugEnabled() && KILL_LOG.sample()) {
+                Logger.debug("Player {} gained {} XP from enemy kill (type: {}). Total XP: {}, Level: {} (+{} similar)",
+                        nearestPlayer.getUsername(), xpReward, enemy.getTemplateName(), nearestPlayer.getXP(),
+                        nearestPlayer.getLevel(), KILL_LOG.drainSuppressed());
+            }
+        } else if (Logger.isDebugEnabled()) {
+            Logger.debug("Enemy {} defeated but no player nearby to reward XP", enemy.getId());
         }
 
-        // Drop item asynchronously to avoid blocking game loop
-        new Thread(() -> {
-            try {
-                WorldItem dropped = itemDropService.dropFromEnemy(enemy.getTemplateId(), enemy.getX(), enemy.getY(), enemy.getMapId());
-                if (dropped != null) {
-                    state.addWorldItem(dropped);
-                    Logger.info("Dropped world item id=" + dropped.getId() + " template=" + dropped.getItemTemplateId() + " at (" + dropped.getX() + "," + dropped.getY() + ")");
+        // Drops are in-memory only (no DB write until pickup), so roll them on the game loop
+        try {
+            WorldItem dropped = itemDropService.dropFromEnemy(enemy.getTemplateId(), enemy.getX(), enemy.getY(), enemy.getMapId());
+            if (dropped != null) {
+                state.addWorldItem(dropped);
+                if (Logger.isDebugEnabled()) {
+                    Logger.debug("Dropped world item id={} template={} at ({},{})",
+                            dropped.getId(), dropped.getItemTemplateId(), dropped.getX(), dropped.getY());
                 }
-            } catch (Exception e) {
-                Logger.error("Error dropping item from enemy " + enemy.getId(), e);
             }
-        }).start();
+        } catch (Exception e) {
+            Logger.error("Error dropping item from enemy " + enemy.getId(), e);
+        }
     }
 
     private float calculateDistance(float x1, float y1, float x2, float y2) {
@@ -183,110 +177,18 @@ public class CombatSystem {
         return (float) Math.sqrt(dx * dx + dy * dy);
     }
 
-    private int calculatePlayerDefense(Player player) {
-        int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
-        Map<String, Map<String, Object>> equipped = EquippedItemRepository.getEquippedItems(playerId);
-        
-        int totalDefense = 0;
-        
-        // Add armor defense
-        Map<String, Object> armor = equipped.get("armor");
-        if (armor != null && armor.get("defense") instanceof Number) {
-            totalDefense += ((Number) armor.get("defense")).intValue();
-        }
-        
-        // Add gloves defense
-        Map<String, Object> gloves = equipped.get("gloves");
-        if (gloves != null && gloves.get("defense") instanceof Number) {
-            totalDefense += ((Number) gloves.get("defense")).intValue();
-        }
-        
-        // Add boots defense
-        Map<String, Object> boots = equipped.get("boots");
-        if (boots != null && boots.get("defense") instanceof Number) {
-            totalDefense += ((Number) boots.get("defense")).intValue();
-        }
-        
-        return totalDefense;
-    }
-
     /**
      * Drops all items (equipped and inventory) for the given player into the world
      * when they die. Items are scattered around the player's position to avoid stacking.
+     * The drops appear this tick; the database is updated by the inventory writer.
      */
     private void dropAllItemsForPlayer(GameState state, Player player) {
-        int playerId = player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
         float baseX = player.getX();
         float baseY = player.getY();
-
-        int index = 0; // Used to spread items around
-
-        // 1) Drop equipped items first (weapon, armor, gloves, boots)
-        Map<String, Map<String, Object>> equipped = EquippedItemRepository.getEquippedItems(playerId);
-        for (Map.Entry<String, Map<String, Object>> entry : equipped.entrySet()) {
-            String slotType = entry.getKey();
-            Map<String, Object> item = entry.getValue();
-            if (item == null) continue;
-
-            long inventoryId = ((Number) item.get("inventory_id")).longValue();
-            long worldItemId = ((Number) item.get("world_item_id")).longValue();
-
-            float[] pos = computeScatterPosition(baseX, baseY, index++);
-            float dropX = pos[0];
-            float dropY = pos[1];
-
-            // Unclaim world item and move it to drop position
-            boolean unclaimed = WorldItemRepository.unclaimWorldItem(worldItemId, dropX, dropY);
-            // Remove from inventory table
-            boolean deleted = InventoryRepository.deleteInventoryItem(inventoryId);
-            // Clear equipped slot
-            EquippedItemRepository.unequipItem(playerId, slotType);
-
-            // Add to game state for sync
-            var info = WorldItemRepository.getWorldItemInfo(worldItemId);
-            if (info != null) {
-                int templateId = ((Number) info.get("item_template_id")).intValue();
-                String name = (String) info.get("name");
-                String type = (String) info.get("type");
-                WorldItem dropped = new WorldItem(worldItemId, templateId, dropX, dropY, null);
-                dropped.setTemplateName(name);
-                dropped.setItemType(type);
-                dropped.setHasMods(ItemModRepository.hasModsForWorldItem(worldItemId));
-                state.addWorldItem(dropped);
-                Logger.info("DEATH DROP (equipped): player=" + playerId + ", slot=" + slotType + ", worldItemId=" + worldItemId +
-                        ", invId=" + inventoryId + ", pos=(" + dropX + "," + dropY + ") unclaimed=" + unclaimed + " deleted=" + deleted);
-            }
-        }
-
-        // 2) Drop remaining inventory items
-        var invItems = InventoryRepository.getInventoryForPlayer(playerId);
-        for (var row : invItems) {
-            long inventoryId = ((Number) row.get("inventory_id")).longValue();
-            long worldItemId = ((Number) row.get("world_item_id")).longValue();
-            int templateId = ((Number) row.get("item_template_id")).intValue();
-            String name = (String) row.get("name");
-            String type = (String) row.get("type");
-
-            float[] pos = computeScatterPosition(baseX, baseY, index++);
-            float dropX = pos[0];
-            float dropY = pos[1];
-
-            boolean unclaimed = WorldItemRepository.unclaimWorldItem(worldItemId, dropX, dropY);
-            boolean deleted = InventoryRepository.deleteInventoryItem(inventoryId);
-
-            WorldItem dropped = new WorldItem(worldItemId, templateId, dropX, dropY, null);
-            dropped.setTemplateName(name);
-			dropped.setItemType(type);
-			dropped.setHasMods(ItemModRepository.hasModsForWorldItem(worldItemId));
-            state.addWorldItem(dropped);
-            Logger.info("DEATH DROP (inventory): player=" + playerId + ", worldItemId=" + worldItemId +
-                    ", invId=" + inventoryId + ", pos=(" + dropX + "," + dropY + ") unclaimed=" + unclaimed + " deleted=" + deleted);
-        }
-        
-        // IMPORTANT: Refresh the player's cached weapon/armor stats after dropping items
-        // This ensures the server-side damage calculation reflects the loss of equipment
-        player.refreshEquippedItemsCache();
-        Logger.info("DEATH: Refreshed player equipment cache after dropping all items");
+        int dropped = InventoryService.getInstance().dropAll(player, state,
+                index -> computeScatterPosition(baseX, baseY, index));
+        Logger.info("DEATH DROP: player=" + player.getUsername() + " dropped " + dropped +
+                " items around (" + baseX + "," + baseY + ")");
     }
 
     /**
@@ -0,0 +1,465 @@
+package com.vampireraiders.systems;
+
+import com.vampireraiders.database.DatabaseConnection;
+import com.vampireraiders.database.EquippedItemRepository;
+import com.vampireraiders.database.InventoryRepository;
+import com.vampireraiders.database.ItemModRepository;
+import com.vampireraiders.database.UnitOfWork;
+import com.vampireraiders.database.WorldItemRepository;
+import com.vampireraiders.game.GameState;
+import com.vampireraiders.game.ItemModValue;
+import com.vampireraiders.game.ItemTemplate;
+import com.vampireraiders.game.Player;
+import com.vampireraiders.game.PlayerInventory;
+import com.vampireraiders.game.WorldItem;
+import com.vampireraiders.util.Logger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Serves inventory operations for online players from their in-memory PlayerInventory
+ * and persists the resulting mutations write-behind on a single writer thread.
+ *
+ * The writer runs tasks in submission order, so a task always sees the ids assigned by
+ * earlier inserts. Code that reads a player's inventory rows directly must call flush(playerId)
+ * first; it only waits for that player's writes, not for the whole queue.
+ */
+public class InventoryService {
+    private static final InventoryService INSTANCE = new InventoryService();
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
+    private final Map<Integer, PlayerInventory> inventories = new ConcurrentHashMap<>();
+    // Last write submitted per player; the writer is FIFO, so once it is done so are the earlier ones
+    private final Map<Integer, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            DatabaseConnection.bindWorkload(DatabaseConnection.Workload.INVENTORY);
+            r.run();
+        }, "InventoryWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum PickupResult { ADDED, STACKED, FULL }
+
+    private InventoryService() {
+    }
+
+    public static InventoryService getInstance() {
+        return INSTANCE;
+    }
+
+    public static int playerIdOf(Player player) {
+        return player.getDatabaseId() > 0 ? player.getDatabaseId() : player.getPeerId();
+    }
+
+    /**
+     * Load (or reload) a player's inventory and equipment from the database.
+     * The player's pending writes are flushed first so the load sees them; a player without any
+     * (e.g. one who is just joining) loads straight away, whatever else the writer is busy with.
+     */
+    public PlayerInventory load(int playerId) {
+        if (!flush(playerId)) {
+            Logger.warn("Loading inventory of player=" + playerId + " with writes still pending");
+        }
+        PlayerInventory inventory = loadFromDb(playerId);
+        inventories.put(playerId, inventory);
+        return inventory;
+    }
+
+    private static PlayerInventory loadFromDb(int playerId) {
+        return PlayerInventory.fromRows(playerId,
+                InventoryRepository.getInventoryForPlayer(playerId),
+                EquippedItemRepository.getEquippedItems(playerId));
+    }
+
+    /**
+     * Get the player's aggregate, loading it if the player has none yet.
+     * Not for the game loop, which must never wait on the database; use find() there.
+     */
+    public PlayerInventory get(int playerId) {
+        PlayerInventory inventory = inventories.get(playerId);
+        return inventory != null ? inventory : load(playerId);
+    }
+
+    /**
+     * The player's aggregate if it is loaded, else null.
+     */
+    public PlayerInventory find(int playerId) {
+        return inventories.get(playerId);
+    }
+
+    public void unload(int playerId) {
+        inventories.remove(playerId);
+        EquippedItemRepository.invalidateCacheForPlayer(playerId);
+    }
+
+    /**
+     * Block until every write submitted so far for the player has been applied.
+     * Returns false if they didn't complete within the timeout.
+     */
+    public boolean flush(int playerId) {
+        CompletableFuture<Void> pending = pendingWrites.get(playerId);
+        if (pending == null) {
+            return true;
+        }
+        try {
+            pending.get(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            Logger.warn("Inventory writes of player=" + playerId + " did not complete: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Drain pending writes and stop the writer (server shutdown).
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Logger.warn("Inventory writer did not drain before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean canAccept(Player player, ItemTemplate template) {
+        return get(playerIdOf(player)).canAccept(template.getId(), template.isStackable());
+    }
+
+    /**
+     * Add an item already removed from the world (claimed in memory) to the player's inventory.
+     * If persisting fails, the item is put back into the world.
+     */
+    public PickupResult pickup(Player player, WorldItem item, ItemTemplate template, GameState state) {
+        int playerId = playerIdOf(player);
+        PlayerInventory inventory = get(playerId);
+
+        PlayerInventory.Entry stack = template.isStackable() ? inventory.findStack(template.getId()) : null;
+        if (stack != null) {
+            inventory.incrementQuantity(stack);
+            submit(playerId, "stack pickup of world item " + item.getId(), () -> {
+                boolean committed = UnitOfWork.run("stack pickup of world item " + item.getId(), uow -> {
+                    // Read the id now: the stack's own insert ran earlier on this thread
+                    long stackInventoryId = stack.getInventoryId();
+                    if (stackInventoryId <= 0 || !inventory.contains(stack)) {
+                        // Its insert failed or it was dropped: there is no row to add to, keep the world item
+                        throw new SQLException("stack entry has no inventory row");
+                    }
+                    InventoryRepository.incrementItemQuantity(uow, stackInventoryId);
+                    // Stacked items don't need their own world_items row
+                    if (item.isPersisted()) {
+                        WorldItemRepository.deleteWorldItem(uow, item.getId());
+                    }
+                });
+                if (!committed) {
+                    // Nothing was written; undo the increment and give the item back to the world
+                    Logger.error("Failed to stack world item id=" + item.getId() + " player=" + playerId);
+                    if (inventory.contains(stack)) {
+                        inventory.decrementQuantity(stack);
+                    }
+                    state.addWorldItem(item);
+                }
+            });
+            return PickupResult.STACKED;
+        }
+
+        int slotIndex = inventory.findFreeSlot();
+        if (slotIndex < 0) {
+            return PickupResult.FULL;
+        }
+        PlayerInventory.Entry entry = inventory.add(item.getId(), template, slotIndex);
+        submit(playerId, "pickup of world item " + item.getId(), () -> {
+            // Claim (or create) the world item and insert the inventory row atomically
+            long[] ids = new long[2]; // world item id, inventory id
+            boolean committed = UnitOfWork.run("pickup of world item " + item.getId(), uow -> {
+                long worldItemId = item.getId();
+                if (item.isPersisted()) {
+                    if (!WorldItemRepository.claimWorldItem(uow, worldItemId, playerId)) {
+                        Logger.debug("Pickup failed: item already claimed id=" + worldItemId);
+                        return;
+                    }
+                } else {
+                    // First time this drop touches the database
+                    worldItemId = WorldItemRepository.createClaimedWorldItem(uow, item.getItemTemplateId(), item.getX(), item.getY(), playerId);
+                    if (worldItemId <= 0) {
+                        throw new SQLException("no id generated for world item");
+                    }
+                }
+                PlayerInventory.Entry current = inventory.snapshot(entry);
+                long inventoryId = InventoryRepository.addInventoryItemAndGetId(uow, playerId, worldItemId, current.getSlotX(), current.getSlotY());
+                if (inventoryId <= 0) {
+                    throw new SQLException("no id generated for inventory row");
+                }
+                ids[0] = worldItemId;
+                ids[1] = inventoryId;
+            });
+            if (committed && ids[1] > 0) {
+                inventory.assignIds(entry, ids[1], ids[0]);
+                return;
+            }
+            // If the entry is already gone (death drop), the item is back in the world as a transient copy
+            boolean stillHeld = inventory.remove(entry);
+            if (!committed && stillHeld) {
+                // Nothing was written; give the item back to the world
+                Logger.error("Failed to add world item to inventory id=" + item.getId() + " player=" + playerId);
+                state.addWorldItem(item);
+            }
+        });
+        return PickupResult.ADDED;
+    }
+
+    public boolean move(Player player, long inventoryId, int slotX, int slotY) {
+        int playerId = playerIdOf(player);
+        PlayerInventory inventory = get(playerId);
+        PlayerInventory.Entry entry = inventory.get(inventoryId);
+        if (entry == null || !inventory.move(entry, slotX, slotY)) {
+            return false;
+        }
+        submit(playerId, "move of inventory item " + inventoryId, () -> InventoryRepository.moveInventoryItem(inventoryId, slotX, slotY));
+        return true;
+    }
+
+    /**
+     * Drop one item (or one from a stack) at the player's feet.
+     * Returns the world item to add to the game state, or null if nothing was dropped.
+     */
+    public WorldItem drop(Player player, long inventoryId) {
+        int playerId = playerIdOf(player);
+        PlayerInventory inventory = get(playerId);
+        PlayerInventory.Entry entry = inventory.get(inventoryId);
+        if (entry == null) {
+            return null;
+        }
+        float x = player.getX();
+        float y = player.getY();
+
+        if (inventory.snapshot(entry).getQuantity() > 1) {
+            // For stacked items, only drop 1; the split-off item stays in memory until picked up
+            inventory.decrementQuantity(entry);
+            submit(playerId, "stack drop of inventory item " + inventoryId, () -> InventoryRepository.decrementItemQuantity(inventoryId));
+            WorldItem dropped = WorldItem.createTransient(entry.getItemTemplateId(), x, y);
+            dropped.setTemplateName(entry.getName());
+            dropped.setItemType(entry.getType());
+            dropped.setMapId(player.getMapId());
+            return dropped;
+        }
+
+        String equippedSlot = inventory.getEquippedSlot(entry);
+        inventory.remove(entry);
+        long worldItemId = entry.getWorldItemId();
+        submit(playerId, "drop of inventory item " + inventoryId, () -> {
+            boolean committed = UnitOfWork.run("drop of inventory item " + inventoryId, uow -> {
+                if (equippedSlot != null) {
+                    EquippedItemRepository.unequipItem(uow, playerId, equippedSlot);
+                }
+                InventoryRepository.deleteInventoryItem(uow, inventoryId);
+                WorldItemRepository.unclaimWorldItem(uow, worldItemId, x, y);
+            });
+            if (committed && equippedSlot != null) {
+                player.refreshEquippedItemsCache();
+            }
+        });
+
+        WorldItem dropped = new WorldItem(worldItemId, entry.getItemTemplateId(), x, y, null);
+        dropped.setTemplateName(entry.getName());
+        dropped.setItemType(entry.getType());
+        dropped.setMapId(player.getMapId());
+        dropped.setHasMods(ItemModRepository.hasModsForWorldItem(worldItemId));
+        return dropped;
+    }
+
+    /**
+     * Drop the whole inventory and equipment into the world (death). The world items are
+     * created and added to the state immediately; the row changes are written in one
+     * batched transaction on the writer thread.
+     *
+     * @param positionForIndex scatter position of the n-th dropped item
+     * @return number of items dropped
+     */
+    public int dropAll(Player player, GameState state, IntFunction<float[]> positionForIndex) {
+        int playerId = playerIdOf(player);
+        // Runs on the game loop: never load here, an online player's aggregate is loaded at join
+        PlayerInventory inventory = find(playerId);
+        if (inventory == null) {
+            Logger.warn("DEATH DROP: no inventory loaded for player=" + playerId);
+            return 0;
+        }
+        List<PlayerInventory.Entry> entries = inventory.removeAll();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        player.clearEquipmentStats();
+
+        List<WorldItem> drops = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            PlayerInventory.Entry entry = entries.get(i);
+            float[] pos = positionForIndex.apply(i);
+            // Entries whose pickup is still being written have no row of their own yet; drop a transient copy
+            WorldItem dropped = entry.getInventoryId() > 0
+                    ? new WorldItem(entry.getWorldItemId(), entry.getItemTemplateId(), pos[0], pos[1], null)
+                    : WorldItem.createTransient(entry.getItemTemplateId(), pos[0], pos[1]);
+            dropped.setTemplateName(entry.getName());
+            dropped.setItemType(entry.getType());
+            dropped.setMapId(player.getMapId());
+            drops.add(dropped);
+            state.addWorldItem(dropped);
+        }
+
+        submit(playerId, "death drop of player " + playerId, () -> {
+            List<Long> persistedIds = new ArrayList<>();
+            boolean committed = UnitOfWork.run("death drop of player " + playerId, uow -> {
+                EquippedItemRepository.unequipAll(uow, playerId);
+                for (int i = 0; i < entries.size(); i++) {
+                    PlayerInventory.Entry entry = entries.get(i);
+                    WorldItem dropped = drops.get(i);
+                    // Read the ids now: earlier writer tasks may have assigned them since the drop
+                    long inventoryId = entry.getInventoryId();
+                    if (inventoryId <= 0) {
+                        continue; // The pickup never made it to the database
+                    }
+                    InventoryRepository.deleteInventoryItem(uow, inventoryId);
+                    if (dropped.isPersisted()) {
+                        WorldItemRepository.unclaimWorldItem(uow, entry.getWorldItemId(), dropped.getX(), dropped.getY());
+                        persistedIds.add(entry.getWorldItemId());
+                    } else {
+                        // The transient copy in the world replaces the row created by the pickup
+                        WorldItemRepository.deleteWorldItem(uow, entry.getWorldItemId());
+                    }
+                }
+            });
+
+            if (!committed) {
+                // Rows are unchanged: take the drops back out of the world and restore the inventory
+                for (WorldItem dropped : drops) {
+                    state.removeWorldItem(dropped);
+                }
+                if (inventories.containsKey(playerId)) {
+                    inventories.put(playerId, loadFromDb(playerId));
+                }
+                player.refreshEquippedItemsCache();
+                return;
+            }
+
+            // Flag modded drops for the client (one batched lookup, usually served from the mod cache)
+            Map<Long, List<ItemModValue>> mods = ItemModRepository.getModsForWorldItems(persistedIds);
+            for (WorldItem dropped : drops) {
+                if (dropped.isPersisted() && mods.containsKey(dropped.getId())) {
+                    dropped.setHasMods(true);
+                }
+            }
+            player.refreshEquippedItemsCache();
+            Logger.info("DEATH DROP: persisted " + entries.size() + " items of player=" + playerId);
+        });
+        return entries.size();
+    }
+
+    public boolean equip(Player player, long inventoryId, String slotType) {
+        if (!PlayerInventory.isEquipSlot(slotType)) {
+            return false;
+        }
+        int playerId = playerIdOf(player);
+        PlayerInventory inventory = get(playerId);
+        PlayerInventory.Entry entry = inventory.get(inventoryId);
+        if (entry == null) {
+            return false;
+        }
+        inventory.equip(entry, slotType);
+        submit(playerId, "equip of inventory item " + inventoryId, () -> {
+            if (EquippedItemRepository.equipItem(playerId, inventoryId, slotType)) {
+                player.refreshEquippedItemsCache();
+            }
+        });
+        return true;
+    }
+
+    public boolean unequip(Player player, String slotType) {
+        if (!PlayerInventory.isEquipSlot(slotType)) {
+            return false;
+        }
+        int playerId = playerIdOf(player);
+        get(playerId).unequip(slotType);
+        submit(playerId, "unequip of slot " + slotType, () -> {
+            if (EquippedItemRepository.unequipItem(playerId, slotType)) {
+                player.refreshEquippedItemsCache();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Apply a Jewel of Strength to an item. The jewel is consumed in memory right away; the
+     * upgrade is written on the writer, which gives the jewel back if it fails (e.g. max level).
+     */
+    public boolean applyJewel(Player player, long jewelInventoryId, long targetInventoryId) {
+        int playerId = playerIdOf(player);
+        PlayerInventory inventory = get(playerId);
+        PlayerInventory.Entry jewel = inventory.get(jewelInventoryId);
+        PlayerInventory.Entry target = inventory.get(targetInventoryId);
+        if (jewel == null || target == null || jewel == target) {
+            Logger.debug("APPLY_JEWEL: Invalid inventory items - jewel=" + (jewel != null ? "OK" : "NULL") +
+                         ", target=" + (target != null ? "OK" : "NULL"));
+            return false;
+        }
+        if (!ModsService.canApplyJewelOfStrength(jewel, target)) {
+            return false;
+        }
+
+        boolean lastJewel = inventory.snapshot(jewel).getQuantity() <= 1;
+        if (lastJewel) {
+            inventory.remove(jewel);
+        } else {
+            inventory.decrementQuantity(jewel);
+        }
+        long jewelWorldItemId = jewel.getWorldItemId();
+        submit(playerId, "apply jewel " + jewelInventoryId + " to " + targetInventoryId, () -> {
+            if (!ModsService.applyJewelOfStrength(playerId, jewelInventoryId, jewelWorldItemId, lastJewel,
+                    targetInventoryId, target.getWorldItemId())) {
+                // Nothing was written; give the jewel back
+                if (lastJewel) {
+                    inventory.restore(jewel);
+                } else if (inventory.contains(jewel)) {
+                    inventory.incrementQuantity(jewel);
+                }
+                return;
+            }
+            if (inventory.isEquipped(target)) {
+                player.refreshEquippedItemsCache();
+            }
+        });
+        return true;
+    }
+
+    private void submit(int playerId, String description, Runnable task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        // Queue under the map entry's lock so the recorded write is always the player's last one
+        pendingWrites.compute(playerId, (id, previous) -> {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    Logger.error("Inventory write failed (" + description + ")", e);
+                } finally {
+                    done.complete(null);
+                    pendingWrites.remove(id, done);
+                }
+            });
+            return done;
+        });
+    }
+}
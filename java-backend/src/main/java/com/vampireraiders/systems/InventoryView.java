@@ -0,0 +1,121 @@
+package com.vampireraiders.systems;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.vampireraiders.database.ItemModRepository;
+import com.vampireraiders.game.ItemModValue;
+import com.vampireraiders.game.Player;
+import com.vampireraiders.game.PlayerInventory;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only snapshot of a player's inventory, equipment and item mods.
+ * All mods are fetched with a single batched query when the view is built,
+ * so consumers never query item_mods per item.
+ */
+public class InventoryView {
+    private final List<PlayerInventory.Entry> items;
+    private final Map<String, PlayerInventory.Entry> equipped;
+    private final Map<Long, List<ItemModValue>> modsByWorldItem;
+
+    private InventoryView(List<PlayerInventory.Entry> items, Map<String, PlayerInventory.Entry> equipped,
+                          Map<Long, List<ItemModValue>> modsByWorldItem) {
+        this.items = items;
+        this.equipped = equipped;
+        this.modsByWorldItem = modsByWorldItem;
+    }
+
+    public static InventoryView build(PlayerInventory inventory) {
+        List<PlayerInventory.Entry> items = inventory.getEntries();
+        Map<String, PlayerInventory.Entry> equipped = inventory.getEquipped();
+
+        Set<Long> worldItemIds = new LinkedHashSet<>();
+        for (PlayerInventory.Entry entry : items) {
+            worldItemIds.add(entry.getWorldItemId());
+        }
+        for (PlayerInventory.Entry entry : equipped.values()) {
+            worldItemIds.add(entry.getWorldItemId());
+        }
+        return new InventoryView(items, equipped, ItemModRepository.getModsForWorldItems(worldItemIds));
+    }
+
+    /**
+     * All inventory entries, including equipped ones
+     */
+    public List<PlayerInventory.Entry> getItems() {
+        return items;
+    }
+
+    public Map<String, PlayerInventory.Entry> getEquipped() {
+        return equipped;
+    }
+
+    public List<ItemModValue> getMods(long worldItemId) {
+        return modsByWorldItem.getOrDefault(worldItemId, Collections.emptyList());
+    }
+
+    /**
+     * Build the "inventory" message sent to the client.
+     */
+    public JsonObject toJson(Player player) {
+        JsonObject payload = new JsonObject();
+        payload.addProperty("type", "inventory");
+
+        JsonArray arr = new JsonArray();
+        for (PlayerInventory.Entry entry : items) {
+            JsonObject obj = itemJson(entry);
+            obj.addProperty("quantity", entry.getQuantity());
+            obj.addProperty("slot_x", entry.getSlotX());
+            obj.addProperty("slot_y", entry.getSlotY());
+            arr.add(obj);
+        }
+        payload.add("items", arr);
+
+        JsonObject equippedObj = new JsonObject();
+        for (Map.Entry<String, PlayerInventory.Entry> slot : equipped.entrySet()) {
+            equippedObj.add(slot.getKey(), itemJson(slot.getValue()));
+        }
+        payload.add("equipped", equippedObj);
+
+        JsonObject playerObj = new JsonObject();
+        playerObj.addProperty("level", player.getLevel());
+        playerObj.addProperty("max_health", player.getMaxHealth());
+        playerObj.addProperty("attack_damage", player.getCachedTotalDamage());
+        playerObj.addProperty("defense", player.getCachedTotalDefense());
+        playerObj.addProperty("move_speed", (int) player.getMoveSpeed());
+        playerObj.addProperty("attack_speed", player.getEquippedAttackSpeed());
+        payload.add("player", playerObj);
+
+        return payload;
+    }
+
+    private JsonObject itemJson(PlayerInventory.Entry entry) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("inventory_id", entry.getInventoryId());
+        obj.addProperty("world_item_id", entry.getWorldItemId());
+        obj.addProperty("item_template_id", entry.getItemTemplateId());
+        obj.addProperty("name", entry.getName());
+        obj.addProperty("type", entry.getType());
+        obj.addProperty("damage", entry.getDamage());
+        obj.addProperty("defense", entry.getDefense());
+        obj.addProperty("rarity", entry.getRarity());
+        obj.addProperty("stackable", entry.isStackable());
+
+        // Attach mods for client tooltip display
+        JsonArray modsArray = new JsonArray();
+        for (ItemModValue m : getMods(entry.getWorldItemId())) {
+            JsonObject mObj = new JsonObject();
+            mObj.addProperty("mod_type", m.getModType());
+            mObj.addProperty("mod_value", m.getModValue());
+            mObj.addProperty("mod_name", m.getModName());
+            modsArray.add(mObj);
+        }
+        obj.add("mods", modsArray);
+        return obj;
+    }
+}
@@ -2,7 +2,10 @@ package com.vampireraiders.systems;
 
 import com.vampireraiders.database.InventoryRepository;
 import com.vampireraiders.database.ItemModRepository;
+import com.vampireraiders.database.UnitOfWork;
 import com.vampireraiders.database.WorldItemRepository;
+import com.vampireraiders.game.PlayerInventory;
+import com.vampireraiders.game.TemplateRegistry;
 import com.vampireraiders.util.Logger;
 
 /**
@@ -11,37 +14,26 @@ import com.vampireraiders.util.Logger;
 public class ModsService {
 
     /**
-     * Apply Jewel of Strength to a target item, upgrading its LEVEL mod.
-     * 
-     * @param playerId Player ID
-     * @param jewelInventoryId Inventory ID of the jewel to consume
-     * @param targetInventoryId Inventory ID of the item to upgrade
-     * @return true if upgrade succeeded, false otherwise
+     * Check that a Jewel of Strength can be applied to the target (item types and jewel name only).
+     *
+     * @param jewel Inventory entry of the jewel to consume
+     * @param target Inventory entry of the item to upgrade
+     * @return true if the jewel may be applied, false otherwise
      */
-    public static boolean applyJewelOfStrength(int playerId, long jewelInventoryId, long targetInventoryId) {
-        // Get jewel and target items from inventory
-        var jewel = InventoryRepository.getInventoryItemForPlayerById(playerId, jewelInventoryId);
-        var target = InventoryRepository.getInventoryItemForPlayerById(playerId, targetInventoryId);
-        
-        if (jewel == null || target == null) {
-            Logger.debug("APPLY_JEWEL: Invalid inventory items - jewel=" + (jewel != null ? "OK" : "NULL") + 
-                         ", target=" + (target != null ? "OK" : "NULL"));
-            return false;
-        }
-
+    public static boolean canApplyJewelOfStrength(PlayerInventory.Entry jewel, PlayerInventory.Entry target) {
         // Validate jewel is actually a jewel
-        String jewelType = (String) jewel.get("type");
-        String jewelName = (String) jewel.get("name");
+        String jewelType = jewel.getType();
+        String jewelName = jewel.getName();
         if (!"jewel".equalsIgnoreCase(jewelType)) {
-            Logger.debug("APPLY_JEWEL: inventory_id=" + jewelInventoryId + " is not a jewel (type=" + jewelType + ")");
+            Logger.debug("APPLY_JEWEL: inventory_id=" + jewel.getInventoryId() + " is not a jewel (type=" + jewelType + ")");
             return false;
         }
 
         // Validate target is weapon, armor, gloves, or boots
-        String targetType = (String) target.get("type");
+        String targetType = target.getType();
         if (!"weapon".equalsIgnoreCase(targetType) && !"armor".equalsIgnoreCase(targetType) && 
             !"gloves".equalsIgnoreCase(targetType) && !"boots".equalsIgnoreCase(targetType)) {
-            Logger.debug("APPLY_JEWEL: target inventory_id=" + targetInventoryId + " invalid type=" + targetType);
+            Logger.debug("APPLY_JEWEL: target inventory_id=" + target.getInventoryId() + " invalid type=" + targetType);
             return false;
         }
 
@@ -50,11 +42,27 @@ public class ModsService {
             Logger.debug("APPLY_JEWEL: unsupported jewel name=" + jewelName);
             return false;
         }
+        return true;
+    }
 
+    /**
+     * Apply Jewel of Strength to a target item, upgrading its LEVEL mod.
+     * Runs on the inventory writer after canApplyJewelOfStrength; the caller keeps the
+     * in-memory inventory in sync.
+     * 
+     * @param playerId Player ID
+     * @param jewelInventoryId Inventory ID of the jewel to consume
+     * @param jewelWorldItemId World item ID of the jewel
+     * @param lastJewel true if this is the last jewel of its stack (row is deleted instead of decremented)
+     * @param targetInventoryId Inventory ID of the item to upgrade
+     * @param targetWorldItemId World item ID of the item to upgrade
+     * @return true if upgrade succeeded, false otherwise
+     */
+    public static boolean applyJewelOfStrength(int playerId, long jewelInventoryId, long jewelWorldItemId, boolean lastJewel,
+                                               long targetInventoryId, long targetWorldItemId) {
         // Get current level and max level for target item
-        long targetWorldItemId = ((Number) target.get("world_item_id")).longValue();
         int currentLevel = ItemModRepository.getModValueForWorldItem(targetWorldItemId, "LEVEL");
-        int maxLevel = ItemModRepository.getMaxModValue("LEVEL");
+        int maxLevel = TemplateRegistry.get().getMaxModValue("LEVEL");
         
         if (maxLevel <= 0) {
             Logger.warn("APPLY_JEWEL: No LEVEL mods defined in mod_templates");
@@ -69,30 +77,28 @@ public class ModsService {
         }
 
         // Get mod template for next level
-        Integer modTemplateId = ItemModRepository.getModTemplateId("LEVEL", nextLevel);
+        Integer modTemplateId = TemplateRegistry.get().getModTemplateId("LEVEL", nextLevel);
         if (modTemplateId == null) {
             Logger.warn("APPLY_JEWEL: Missing mod template for LEVEL=" + nextLevel);
             return false;
         }
 
-        // Apply the mod
-        boolean modOk = ItemModRepository.upsertWorldItemMod(targetWorldItemId, "LEVEL", modTemplateId);
-        if (!modOk) {
+        // Apply the mod and consume the jewel (decrement quantity or delete) in one transaction,
+        // so a failure can't upgrade the item without using up the jewel or vice versa
+        boolean applied = UnitOfWork.run("apply jewel " + jewelInventoryId + " to " + targetInventoryId, uow -> {
+            ItemModRepository.upsertWorldItemMod(uow, targetWorldItemId, "LEVEL", modTemplateId);
+            if (!lastJewel) {
+                InventoryRepository.decrementItemQuantity(uow, jewelInventoryId);
+            } else {
+                InventoryRepository.deleteInventoryItem(uow, jewelInventoryId);
+                WorldItemRepository.deleteWorldItem(uow, jewelWorldItemId);
+            }
+        });
+        if (!applied) {
             Logger.warn("APPLY_JEWEL: Failed to upsert LEVEL mod for world_item_id=" + targetWorldItemId);
             return false;
         }
 
-        // Consume the jewel (decrement quantity or delete)
-        int quantity = ((Number) jewel.get("quantity")).intValue();
-        long jewelWorldItemId = ((Number) jewel.get("world_item_id")).longValue();
-
-        if (quantity > 1) {
-            InventoryRepository.decrementItemQuantity(jewelInventoryId);
-        } else {
-            InventoryRepository.deleteInventoryItem(jewelInventoryId);
-            WorldItemRepository.deleteWorldItem(jewelWorldItemId);
-        }
-
         Logger.info("APPLY_JEWEL: Player=" + playerId + " applied Jewel of Strength to inventory_id=" + targetInventoryId +
                 " (world_item_id=" + targetWorldItemId + ") LEVEL " + currentLevel + " -> " + nextLevel);
         
@@ -1,11 +1,11 @@
 package com.vampireraiders.systems;
 
 import com.vampireraiders.config.ServerConfig;
-import com.vampireraiders.database.EnemyTemplateRepository;
 import com.vampireraiders.game.Enemy;
 import com.vampireraiders.game.EnemyTemplate;
 import com.vampireraiders.game.GameState;
 import com.vampireraiders.game.GameWorld;
+import com.vampireraiders.game.TemplateRegistry;
 import com.vampireraiders.game.TileType;
 import com.vampireraiders.game.Tilemap;
 import com.vampireraiders.util.Logger;
@@ -21,26 +21,18 @@ public class SpawnerSystem {
     private final Random random = new Random();
     private static final int PERF_TEST_ENEMY_COUNT = 200;
     private static final int DUNGEON_ENEMIES_PER_LEVEL = 5;
-    private EnemyTemplate spiderTemplate;
+    // Enemy template spawned in each spawn zone level (PV1-4)
+    private static final String[] SPAWN_LEVEL_TEMPLATES = { "Spider", "Worm", "Wild Dog", "Hound" };
+
+    // Templates by spawn level, resolved by name once per registry version
+    private volatile EnemyTemplate[] templatesByLevel = new EnemyTemplate[0];
+    private volatile TemplateRegistry resolvedRegistry = null;
 
     public SpawnerSystem(GameState gameState) {
         this.gameState = gameState;
         this.maxEnemies = ServerConfig.getInstance().getMaxEnemies();
         this.spawnInterval = ServerConfig.getInstance().getSpawnerInterval();
         this.lastSpawnTime = System.currentTimeMillis();
-        
-        // Load enemy templates and item drops from database
-        EnemyTemplateRepository.loadTemplates();
-        com.vampireraiders.database.EnemyItemRepository.loadCache();
-        this.spiderTemplate = EnemyTemplateRepository.getByName("Spider");
-        
-        if (spiderTemplate == null) {
-            Logger.error("Failed to load Spider template from database!");
-        } else {
-            Logger.info("Loaded Spider template: HP=" + spiderTemplate.getHp() + 
-                       ", Attack=" + spiderTemplate.getAttack() + 
-                       ", Speed=" + spiderTemplate.getMoveSpeed());
-        }
     }
     
     public void spawnInitialEnemiesForPerfTest() {
@@ -62,10 +54,10 @@ public class SpawnerSystem {
         }
         
         // Spawn across different level zones (PV1-4)
-        EnemyTemplate spiderTemplate = EnemyTemplateRepository.getByName("Spider");
-        EnemyTemplate wormTemplate = EnemyTemplateRepository.getByName("Worm");
-        EnemyTemplate wildDogTemplate = EnemyTemplateRepository.getByName("Wild Dog");
-        EnemyTemplate houndTemplate = EnemyTemplateRepository.getByName("Hound");
+        EnemyTemplate spiderTemplate = getTemplateForLevel(1);
+        EnemyTemplate wormTemplate = getTemplateForLevel(2);
+        EnemyTemplate wildDogTemplate = getTemplateForLevel(3);
+        EnemyTemplate houndTemplate = getTemplateForLevel(4);
         
         int spidersToSpawn = PERF_TEST_ENEMY_COUNT / 4;
         int wormsToSpawn = PERF_TEST_ENEMY_COUNT / 4;
@@ -191,7 +183,9 @@ public class SpawnerSystem {
                 Enemy enemy = new Enemy(pos[0], pos[1], template, mapId);
                 enemy.setSpawnLevel(level);
                 gameState.addEnemy(enemy);
-                Logger.debug("Enemy spawned: ID " + enemy.getId() + " Template: " + enemy.getTemplateName() + " Level: " + level + " Map: " + mapId);
+                if (Logger.isDebugEnabled()) {
+                    Logger.debug("Enemy spawned: ID {} Template: {} Level: {} Map: {}", enemy.getId(), enemy.getTemplateName(), level, mapId);
+                }
             }
         }
     }
@@ -217,13 +211,29 @@ public class SpawnerSystem {
     }
     
     private EnemyTemplate getTemplateForLevel(int level) {
-        switch (level) {
-            case 1: return EnemyTemplateRepository.getByName("Spider");
-            case 2: return EnemyTemplateRepository.getByName("Worm");
-            case 3: return EnemyTemplateRepository.getByName("Wild Dog");
-            case 4: return EnemyTemplateRepository.getByName("Hound");
-            default: return EnemyTemplateRepository.getByName("Spider");
+        TemplateRegistry registry = TemplateRegistry.get();
+        EnemyTemplate[] byLevel = templatesByLevel;
+        if (registry != resolvedRegistry) {
+            byLevel = resolveTemplates(registry);
+            templatesByLevel = byLevel;
+            resolvedRegistry = registry;
+        }
+        if (level < 1 || level > byLevel.length) {
+            level = 1;
+        }
+        return byLevel.length > 0 ? byLevel[level - 1] : null;
+    }
+
+    private static EnemyTemplate[] resolveTemplates(TemplateRegistry registry) {
+        EnemyTemplate[] byLevel = new EnemyTemplate[SPAWN_LEVEL_TEMPLATES.length];
+        for (int i = 0; i < byLevel.length; i++) {
+            byLevel[i] = registry.getEnemyTemplateByName(SPAWN_LEVEL_TEMPLATES[i]);
+            if (byLevel[i] == null) {
+                Logger.error("Missing enemy template '" + SPAWN_LEVEL_TEMPLATES[i] + "' for spawn level " + (i + 1) +
+                        " (registry v" + registry.getVersion() + ")");
+            }
         }
+        return byLevel;
     }
 
     /**
@@ -3,13 +3,22 @@ package com.vampireraiders.systems;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.vampireraiders.game.*;
+import com.vampireraiders.network.GameClient;
+import com.vampireraiders.network.GameStateFrame;
 import com.vampireraiders.network.NetworkManager;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class StateSync {
     private long lastSyncTime = 0;
     private final int syncIntervalMs = 16; // ~60 Hz
     private final NetworkManager networkManager;
 
+    // map_id -> (target key -> damage since the last frame). Game loop thread only.
+    private final Map<String, Map<Long, PendingDamage>> pendingDamageByMap = new HashMap<>();
+
     public StateSync(NetworkManager networkManager) {
         this.networkManager = networkManager;
     }
@@ -133,40 +142,107 @@ public class StateSync {
         return message;
     }
 
+    /**
+     * Send the tick's game_state to every client. Damage queued since the last frame is added as
+     * "damage_events", and each client only gets the events of the map its player is on, so the
+     * frame is serialized once per map rather than once per client.
+     */
     public void broadcastGameState(GameState state) {
         long currentTime = System.currentTimeMillis();
         if (currentTime - lastSyncTime < syncIntervalMs) {
-            return; // Skip sync if too soon
+            return; // Skip sync if too soon; queued damage goes out with the next frame
         }
 
         lastSyncTime = currentTime;
 
         JsonObject message = createGameStateMessage(state);
-        if (networkManager != null) {
-            networkManager.broadcastMessageToAll(message.toString());
+        if (networkManager == null) {
+            pendingDamageByMap.clear();
+            return;
         }
+
+        GameStateFrame frameWithoutDamage = null;
+        Map<String, GameStateFrame> framesByMap = new HashMap<>();
+        for (GameClient client : networkManager.getClients().values()) {
+            Player player = client.getPlayer();
+            String mapId = player != null ? player.getMapId() : null;
+            GameStateFrame frame = mapId != null ? framesByMap.get(mapId) : null;
+            if (frame == null) {
+                Map<Long, PendingDamage> damage = mapId != null ? pendingDamageByMap.get(mapId) : null;
+                if (damage == null) {
+                    if (frameWithoutDamage == null) {
+                        frameWithoutDamage = new GameStateFrame(message.toString());
+                    }
+                    frame = frameWithoutDamage;
+                } else {
+                    message.add("damage_events", toJson(damage.values(), mapId));
+                    frame = new GameStateFrame(message.toString());
+                    message.remove("damage_events");
+                }
+                if (mapId != null) {
+                    framesByMap.put(mapId, frame);
+                }
+            }
+            networkManager.sendGameState(client, frame);
+        }
+        pendingDamageByMap.clear();
     }
 
     /**
-     * Broadcast a damage event to all clients for visual feedback
+     * Queue a damage event for client-side visual feedback. It is sent with the next game_state
+     * frame to clients on the same map; hits on the same target within a frame are merged into
+     * one event (damage summed, last position kept).
      * @param targetId - ID of damaged entity (enemy id or peer_id for players)
      * @param targetType - "enemy" or "player"
      * @param damage - effective damage dealt
      * @param x - world x position
      * @param y - world y position
      */
-    public void broadcastDamageEvent(int targetId, String targetType, int damage, float x, float y, String mapId) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "damage_event");
-        message.addProperty("target_id", targetId);
-        message.addProperty("target_type", targetType);
-        message.addProperty("damage", damage);
-        message.addProperty("x", x);
-        message.addProperty("y", y);
-        message.addProperty("map_id", mapId != null ? mapId : "main");
-        
-        if (networkManager != null) {
-            networkManager.broadcastMessageToAll(message.toString());
+    public void queueDamageEvent(int targetId, String targetType, int damage, float x, float y, String mapId) {
+        Map<Long, PendingDamage> damageOnMap =
+                pendingDamageByMap.computeIfAbsent(mapId != null ? mapId : "main", k -> new LinkedHashMap<>());
+        long key = ("player".equals(targetType) ? 1L << 32 : 0L) | (targetId & 0xFFFFFFFFL);
+        PendingDamage pending = damageOnMap.get(key);
+        if (pending == null) {
+            damageOnMap.put(key, new PendingDamage(targetId, targetType, damage, x, y));
+        } else {
+            pending.damage += damage;
+            pending.hits++;
+            pending.x = x;
+            pending.y = y;
+        }
+    }
+
+    private static JsonArray toJson(Iterable<PendingDamage> damage, String mapId) {
+        JsonArray events = new JsonArray();
+        for (PendingDamage pending : damage) {
+            JsonObject event = new JsonObject();
+            event.addProperty("target_id", pending.targetId);
+            event.addProperty("target_type", pending.targetType);
+            event.addProperty("damage", pending.damage);
+            event.addProperty("hits", pending.hits);
+            event.addProperty("x", pending.x);
+            event.addProperty("y", pending.y);
+            event.addProperty("map_id", mapId);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static final class PendingDamage {
+        private final int targetId;
+        private final String targetType;
+        private int damage;
+        private int hits = 1;
+        private float x;
+        private float y;
+
+        PendingDamage(int targetId, String targetType, int damage, float x, float y) {
+            this.targetId = targetId;
+            this.targetType = targetType;
+            this.damage = damage;
+            this.x = x;
+            this.y = y;
         }
     }
 }
@@ -2,21 +2,71 @@ package com.vampireraiders.util;
 
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Static logging facade. Output goes through an async appender (see logback.xml), so a call
+ * on the game loop only enqueues the event.
+ *
+ * On hot paths prefer the parameterised overloads ("{}" placeholders are only formatted when
+ * the level is enabled) and guard anything that builds arguments with isDebugEnabled();
+ * per-entity events (hits, kills, XP) should go through a Sampler.
+ */
 public class Logger {
     private static final org.slf4j.Logger logger = LoggerFactory.getLogger("VampireRaidersServer");
 
+    public static boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public static boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     public static void info(String message) {
         logger.info(message);
     }
 
+    public static void info(String format, Object arg) {
+        logger.info(format, arg);
+    }
+
+    public static void info(String format, Object arg1, Object arg2) {
+        logger.info(format, arg1, arg2);
+    }
+
+    public static void info(String format, Object... args) {
+        logger.info(format, args);
+    }
+
     public static void debug(String message) {
         logger.debug(message);
     }
 
+    public static void debug(String format, Object arg) {
+        logger.debug(format, arg);
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        logger.debug(format, arg1, arg2);
+    }
+
+    public static void debug(String format, Object... args) {
+        logger.debug(format, args);
+    }
+
     public static void warn(String message) {
         logger.warn(message);
     }
 
+    public static void warn(String format, Object arg) {
+        logger.warn(format, arg);
+    }
+
+    public static void warn(String format, Object arg1, Object arg2) {
+        logger.warn(format, arg1, arg2);
+    }
+
     public static void error(String message) {
         logger.error(message);
     }
@@ -24,4 +74,46 @@ public class Logger {
     public static void error(String message, Throwable t) {
         logger.error(message, t);
     }
+
+    public static Sampler sampler(long intervalMs) {
+        return new Sampler(intervalMs);
+    }
+
+    /**
+     * Lets at most one event through per interval and counts the rest, for events that can
+     * fire hundreds of times per tick. Lock-free and allocation-free:
+     *
+     *   if (HIT_LOG.sample()) {
+     *       Logger.debug("Bullet hit enemy {} (+{} similar)", enemy.getId(), HIT_LOG.drainSuppressed());
+     *   }
+     */
+    public static final class Sampler {
+        private final long intervalNanos;
+        private final AtomicLong nextAllowedNanos = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Sampler(long intervalMs) {
+            this.intervalNanos = intervalMs * 1_000_000L;
+        }
+
+        /**
+         * True if this event should be logged; false (and counted) if it falls in the current interval.
+         */
+        public boolean sample() {
+            long now = System.nanoTime();
+            long next = nextAllowedNanos.get();
+            if ((next == Long.MIN_VALUE || now - next >= 0) && nextAllowedNanos.compareAndSet(next, now + intervalNanos)) {
+                return true;
+            }
+            suppressed.incrementAndGet();
+            return false;
+        }
+
+        /**
+         * Events skipped since the last call.
+         */
+        public long drainSuppressed() {
+            return suppressed.getAndSet(0);
+        }
+    }
 }
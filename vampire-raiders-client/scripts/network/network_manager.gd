@@ -7,6 +7,8 @@ signal inventory_received(data: Dictionary)
 signal item_picked_up(world_item_id: int)
 signal damage_event_received(target_id: int, target_type: String, damage: int, position: Vector2, map_id: String)
 signal latency_updated(rtt_ms: float)
+signal login_queued(position: int)
+signal auth_failed(message: String)
 
 var socket: StreamPeerTCP
 var server_ip: String = ""
@@ -25,6 +27,10 @@ var last_rtt_ms: float = -1.0
 var ping_timer: float = 0.0
 var ping_interval: float = 1.0
 var pending_ping_client_ms: int = -1
+# Newest game_state tick applied (frames may arrive over both TCP and UDP)
+var last_world_time: int = -1
+# A world_time this far behind the last one means the server restarted its clock
+const WORLD_TIME_RESET_TICKS := 600
 
 func _ready():
 	print("[NETWORK] Ready (TCP)")
@@ -51,6 +57,7 @@ func start_client(ip: String):
 	
 	connection_time = 0.0
 	heartbeat_timer = 0.0
+	last_world_time = -1
 	print("[NETWORK] TCP connection initiated")
 
 func _process(delta):
@@ -118,24 +125,48 @@ func _process(delta):
 		print("[NETWORK] Disconnected!")
 		_on_connection_failed()
 
+# Entry point for messages that arrive over the UDP snapshot channel
+func deliver_server_message(data: Dictionary):
+	_handle_server_message(data)
+
+func _emit_damage_event(data: Dictionary):
+	var target_id = data.get("target_id", -1)
+	var target_type = data.get("target_type", "")
+	var damage = data.get("damage", 0)
+	var x = data.get("x", 0.0)
+	var y = data.get("y", 0.0)
+	var map_id = data.get("map_id", "main")
+	damage_event_received.emit(target_id, target_type, damage, Vector2(x, y), map_id)
+
 func _handle_server_message(data: Dictionary):
 	match data.get("type"):
 		"player_joined":
 			peer_id = data.get("peer_id", -1)
 			udp_token = data.get("udp_token", "")
 			print("[NETWORK] Got peer ID: ", peer_id)
+		"login_queued":
+			# Server is busy with other logins; it reports our place in line until we're in
+			var position = int(data.get("position", 0))
+			print("[NETWORK] Login queued, position: ", position)
+			login_queued.emit(position)
+		"auth_error":
+			var message = data.get("message", "Login failed")
+			print("[NETWORK] Login refused: ", message)
+			auth_failed.emit(message)
 		"game_state":
+			var world_time := int(data.get("world_time", 0))
+			if world_time <= last_world_time and world_time + WORLD_TIME_RESET_TICKS > last_world_time:
+				return
+			last_world_time = world_time
+			# Damage since the last frame comes batched (one event per target, only for our map)
+			for event in data.get("damage_events", []):
+				_emit_damage_event(event)
 			game_state_received.emit(data)
 		"inventory":
 			inventory_received.emit(data)
 		"damage_event":
-			var target_id = data.get("target_id", -1)
-			var target_type = data.get("target_type", "")
-			var damage = data.get("damage", 0)
-			var x = data.get("x", 0.0)
-			var y = data.get("y", 0.0)
-			var map_id = data.get("map_id", "main")
-			damage_event_received.emit(target_id, target_type, damage, Vector2(x, y), map_id)
+			# Older servers send each hit as its own message
+			_emit_damage_event(data)
 		"pong":
 			var echoed_ms = int(data.get("client_time_ms", -1))
 			if echoed_ms != -1:
@@ -16,6 +16,22 @@ var udp_seq: int = 1
 var udp_disabled: bool = false
 var udp_failures: int = 0
 const UDP_FAIL_THRESHOLD := 6
+# Binary input datagram v2 (see InputDatagram.java): tag, peer id, seq, quantised dir,
+# snapshot ack, flags, truncated MAC
+const INPUT_DATAGRAM_TAG := 0xB2
+const INPUT_SIGNED_LENGTH := 18
+const INPUT_MAC_LENGTH := 16
+const INPUT_FLAG_HAS_INPUT := 0x01
+var _crypto := Crypto.new()
+# UDP snapshot channel (see SnapshotChannel.java): game_state split into fragments
+const SNAPSHOT_TAG := 0xC1
+const SNAPSHOT_HEADER_LENGTH := 9
+const SNAPSHOT_MAX_PENDING := 8
+# Ack the latest snapshot at least this often even without input (idle or dead)
+const SNAPSHOT_ACK_INTERVAL := 0.25
+var last_snapshot_seq: int = 0
+var _snapshot_parts := {}  # seq -> {"count", "received", "parts"}
+var _since_last_udp_send: float = 0.0
 
 signal connected_to_server
 signal server_message(data: Dictionary)
@@ -48,6 +64,8 @@ func connect_to_server(ip: String) -> bool:
 		udp_failures = 0
 		udp_registered = false
 		udp_seq = 1
+		last_snapshot_seq = 0
+		_snapshot_parts.clear()
 		udp_ready = true
 		print("[UDP_FACADE] UDP ready for host ", ip, ":", PORT)
 	else:
@@ -71,20 +89,7 @@ func send_player_join(username: String, x: float, y: float) -> bool:
 
 func send_player_input(dir_x: float, dir_y: float) -> bool:
 	if _udp_available():
-		var dx_i := int(round(dir_x * 10000.0))
-		var dy_i := int(round(dir_y * 10000.0))
-		var payload := {
-			"type": "player_input",
-			"peer_id": peer_id,
-			"dir_x": dir_x,
-			"dir_y": dir_y,
-			"dx_i": dx_i,
-			"dy_i": dy_i,
-			"token": net_manager.udp_token,
-			"seq": udp_seq,
-			"hmac": _compute_hmac("player_input", peer_id, udp_seq, dx_i, dy_i)
-		}
-		var ok = _send_udp_json(payload)
+		var ok = _send_udp_bytes(_build_input_datagram(dir_x, dir_y, true))
 		if ok:
 			udp_seq += 1
 			return true
@@ -93,6 +98,21 @@ func send_player_input(dir_x: float, dir_y: float) -> bool:
 	var msg = {"type": "player_input", "dir_x": dir_x, "dir_y": dir_y}
 	return send_json(msg)
 
+func _build_input_datagram(dir_x: float, dir_y: float, has_input: bool) -> PackedByteArray:
+	var packet := PackedByteArray()
+	packet.resize(INPUT_SIGNED_LENGTH)
+	packet.encode_u8(0, INPUT_DATAGRAM_TAG)
+	packet.encode_s32(1, peer_id)
+	packet.encode_u32(5, udp_seq)
+	packet.encode_s16(9, int(round(clampf(dir_x, -1.0, 1.0) * 32767.0)))
+	packet.encode_s16(11, int(round(clampf(dir_y, -1.0, 1.0) * 32767.0)))
+	packet.encode_u32(13, last_snapshot_seq)
+	packet.encode_u8(17, INPUT_FLAG_HAS_INPUT if has_input else 0)
+	var key: PackedByteArray = net_manager.udp_token.to_utf8_buffer()
+	var mac := _crypto.hmac_digest(HashingContext.HASH_SHA256, key, packet)
+	packet.append_array(mac.slice(0, INPUT_MAC_LENGTH))
+	return packet
+
 func send_player_action(action: String) -> bool:
 	var msg = {
 		"type": "player_action",
@@ -124,7 +144,8 @@ func _process(delta):
 			"peer_id": peer_id,
 			"token": net_manager.udp_token,
 			"seq": udp_seq,
-			"hmac": _compute_hmac("register_udp", peer_id, udp_seq)
+			"hmac": _compute_hmac("register_udp", peer_id, udp_seq),
+			"snapshots": true
 		}
 		var ok = _send_udp_json(payload)
 		if ok:
@@ -134,6 +155,52 @@ func _process(delta):
 		else:
 			_register_udp_failure("register_udp send failed")
 
+	if _udp_available():
+		_poll_snapshots()
+		_since_last_udp_send += delta
+		if _since_last_udp_send >= SNAPSHOT_ACK_INTERVAL:
+			_send_udp_bytes(_build_input_datagram(0.0, 0.0, false))
+			udp_seq += 1
+
+func _poll_snapshots():
+	while udp.get_available_packet_count() > 0:
+		var packet := udp.get_packet()
+		if packet.size() > SNAPSHOT_HEADER_LENGTH and packet[0] == SNAPSHOT_TAG:
+			_on_snapshot_fragment(packet)
+
+# Reassemble a snapshot; incomplete ones are dropped once a newer one completes
+func _on_snapshot_fragment(packet: PackedByteArray):
+	var seq := packet.decode_u32(1)
+	var index := packet.decode_u16(5)
+	var count := packet.decode_u16(7)
+	if seq <= last_snapshot_seq or count == 0 or index >= count:
+		return
+	var entry = _snapshot_parts.get(seq)
+	if entry == null:
+		if _snapshot_parts.size() >= SNAPSHOT_MAX_PENDING:
+			_snapshot_parts.erase(_snapshot_parts.keys().min())
+		entry = {"count": count, "received": 0, "parts": []}
+		entry.parts.resize(count)
+		_snapshot_parts[seq] = entry
+	if entry.count != count or entry.parts[index] != null:
+		return
+	entry.parts[index] = packet.slice(SNAPSHOT_HEADER_LENGTH)
+	entry.received += 1
+	if entry.received < entry.count:
+		return
+
+	var payload := PackedByteArray()
+	for part in entry.parts:
+		payload.append_array(part)
+	last_snapshot_seq = seq
+	for pending_seq in _snapshot_parts.keys():
+		if pending_seq <= seq:
+			_snapshot_parts.erase(pending_seq)
+
+	var json := JSON.new()
+	if json.parse(payload.get_string_from_utf8()) == OK and json.data is Dictionary:
+		net_manager.deliver_server_message(json.data)
+
 func _on_game_state(data: Dictionary):
 	# Re-emit as a generic server_message for bootstrap consumers
 	var payload := {"type": "game_state"}
@@ -173,12 +240,18 @@ func is_connected_to_server() -> bool:
 func _send_udp_json(data: Dictionary) -> bool:
 	if not udp_ready:
 		return false
-	var json_str = JSON.stringify(data)
-	var err = udp.put_packet(json_str.to_utf8_buffer())
+	return _send_udp_bytes(JSON.stringify(data).to_utf8_buffer())
+
+# Internal helper to send a raw UDP packet
+func _send_udp_bytes(packet: PackedByteArray) -> bool:
+	if not udp_ready:
+		return false
+	var err = udp.put_packet(packet)
 	if err != OK:
 		_register_udp_failure("send failed: %s" % err)
 		return false
 	udp_failures = 0
+	_since_last_udp_send = 0.0
 	return true
 
 func _udp_available() -> bool:
@@ -200,8 +273,7 @@ func _compute_hmac(msg_type: String, pid: int, seq: int, dx_i: int = 0, dy_i: in
 	var sb := "%s|%d|%d" % [msg_type, pid, seq]
 	if msg_type == "player_input":
 		sb += "|%d|%d" % [dx_i, dy_i]
-	var crypto := Crypto.new()
 	var key: PackedByteArray = net_manager.udp_token.to_utf8_buffer()
 	var msg := sb.to_utf8_buffer()
-	var mac := crypto.hmac_digest(HashingContext.HASH_SHA256, key, msg)
+	var mac := _crypto.hmac_digest(HashingContext.HASH_SHA256, key, msg)
 	return mac.hex_encode()